@@ -1,6 +1,8 @@
 package me.alen_alex;
 
+import me.alen_alex.safelocation.SafeLocationFinder;
 import me.alen_alex.utils.MessageUtils;
+import me.alen_alex.utils.PacketMessageUtils;
 import me.alen_alex.utils.EnumValidator;
 import me.alen_alex.utils.FileUtils;
 import me.alen_alex.utils.LocationUtils;
@@ -12,12 +14,16 @@ public final class UtilityManager {
     private final FileUtils fileUtils;
     private final EnumValidator enumValidator;
     private final MessageUtils messageUtils;
+    private final SafeLocationFinder safeLocationFinder;
+    private final PacketMessageUtils packetMessageUtils;
 
     public UtilityManager(final JavaPlugin plugin){
         locationUtils = new LocationUtils(plugin);
         fileUtils = new FileUtils(plugin);
         enumValidator = new EnumValidator(plugin);
         messageUtils = new MessageUtils(plugin);
+        safeLocationFinder = new SafeLocationFinder(plugin);
+        packetMessageUtils = new PacketMessageUtils(plugin, messageUtils);
     }
 
     public LocationUtils getLocationUtils() {
@@ -35,4 +41,12 @@ public final class UtilityManager {
     public MessageUtils getMessageUtils() {
         return messageUtils;
     }
+
+    public SafeLocationFinder getSafeLocationFinder() {
+        return safeLocationFinder;
+    }
+
+    public PacketMessageUtils getPacketMessageUtils() {
+        return packetMessageUtils;
+    }
 }
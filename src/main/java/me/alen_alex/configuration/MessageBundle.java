@@ -0,0 +1,285 @@
+package me.alen_alex.configuration;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import de.leonhard.storage.Yaml;
+import me.alen_alex.UtilityManager;
+import org.apache.commons.lang3.StringUtils;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Per-player locale messages on top of {@link me.alen_alex.utils.FileUtils#createYAMLFile(String, String)}.
+ * Every locale is a file named locale.yml under the bundle folder (For eg: messages/en_us.yml).
+ * A locale is loaded and colorized the first time a player uses it and is unloaded once no online player uses it anymore.
+ * The default locale is always kept loaded and is used for the missing keys of other locales.
+ * Identical colorized strings are shared between all the loaded locales.
+ */
+public final class MessageBundle implements Listener {
+
+    private static final String FILE_EXTENSION = ".yml";
+    private static final Pattern LOCALE_PATTERN = Pattern.compile("[a-z0-9_\\-]+");
+
+    private final JavaPlugin plugin;
+    private final UtilityManager utilityManager;
+    private final String folderName;
+    private final String defaultLocale;
+    private final Interner<String> stringPool;
+    private final Map<String, LocaleMessages> loadedLocales;
+    private final Map<UUID, LocaleMessages> playerLocales;
+    private LocaleMessages defaultMessages;
+
+    public MessageBundle(JavaPlugin plugin, UtilityManager utilityManager, @NotNull String folderName, @NotNull String defaultLocale) {
+        if(!isValidLocale(normalize(defaultLocale)))
+            throw new IllegalArgumentException("The provided defaultLocale is not a valid locale name for MessageBundle");
+        this.plugin = plugin;
+        this.utilityManager = utilityManager;
+        this.folderName = folderName;
+        this.defaultLocale = normalize(defaultLocale);
+        this.stringPool = Interners.newWeakInterner();
+        this.loadedLocales = new ConcurrentHashMap<>();
+        this.playerLocales = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads the default locale, registers the join/quit listener and assigns the default locale to all the online players.
+     * This should be called once on enable
+     */
+    public void register(){
+        defaultMessages = loadLocale(defaultLocale);
+        defaultMessages.users++;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            if(!playerLocales.containsKey(player.getUniqueId()))
+                assign(player.getUniqueId(), defaultMessages);
+        }
+    }
+
+    /**
+     * Sets the locale of a player. If the locale file doesn't exist, the default locale will be used
+     * @param player the player whose locale needs to be changed
+     * @param locale the name of the locale (For eg: en_us)
+     * @return String the locale which has been assigned to the player
+     */
+    public synchronized String setPlayerLocale(@NotNull Player player, @Nullable String locale){
+        final LocaleMessages messages = resolve(locale);
+        assign(player.getUniqueId(), messages);
+        return messages.locale;
+    }
+
+    /**
+     * Gets the locale currently assigned to the player
+     * @param player the player
+     * @return String the locale of the player
+     */
+    @NotNull
+    public String getPlayerLocale(@NotNull Player player){
+        return getMessages(player.getUniqueId()).locale;
+    }
+
+    /**
+     * Gets a colorized message in the locale of the player.
+     * @param player the player to whom the message belongs
+     * @param key the path of the message
+     * @return String the colorized message, null if the key doesn't exist in the player's or the default locale
+     */
+    @Nullable
+    public String getMessage(@NotNull Player player, @NotNull String key){
+        return getMessage(getMessages(player.getUniqueId()), key);
+    }
+
+    /**
+     * Gets a colorized message in the given locale.
+     * NOTE: If no online player uses the locale, the message is read from the file without keeping the locale loaded.
+     * Cache the result if the same message is needed repeatedly
+     * @param locale the name of the locale
+     * @param key the path of the message
+     * @return String the colorized message, null if the key doesn't exist in the given or the default locale
+     */
+    @Nullable
+    public synchronized String getMessage(@Nullable String locale, @NotNull String key){
+        final String name = normalize(locale);
+        if(name == null || name.equals(defaultLocale) || !isValidLocale(name))
+            return getMessage(defaultMessages, key);
+        final LocaleMessages loaded = loadedLocales.get(name);
+        if(loaded != null)
+            return getMessage(loaded, key);
+        if(!getLocaleFile(name).exists())
+            return getMessage(defaultMessages, key);
+        final Yaml yaml = utilityManager.getFileUtils().createYAMLFile(name, folderName);
+        final String message = utilityManager.getMessageUtils().colorize(yaml.getString(key));
+        yaml.getFileData().clear();
+        return message == null ? getMessage(defaultMessages, key) : message;
+    }
+
+    /**
+     * Gets a colorized list of message in the locale of the player.
+     * @param player the player to whom the message belongs
+     * @param key the path of the message list
+     * @return {@link List<String>} an unmodifiable list of colorized messages, empty if the key doesn't exist
+     */
+    @NotNull
+    public List<String> getMessageList(@NotNull Player player, @NotNull String key){
+        final LocaleMessages messages = getMessages(player.getUniqueId());
+        List<String> messageList = messages.lists.get(key);
+        if(messageList == null && messages != defaultMessages)
+            messageList = defaultMessages.lists.get(key);
+        return messageList == null ? Collections.emptyList() : messageList;
+    }
+
+    /**
+     * Send a message in the locale of the player using {@link me.alen_alex.utils.MessageUtils#sendColorCachedMessage(Player, String)}
+     * NOTE: If the key doesn't exist, nothing will be sent
+     * @param player to send the message
+     * @param key the path of the message
+     */
+    public void sendMessage(@NotNull Player player, @NotNull String key){
+        utilityManager.getMessageUtils().sendColorCachedMessage(player, getMessage(player, key));
+    }
+
+    /**
+     * Gets the locales which are currently loaded
+     * @return {@link Set<String>} the names of the loaded locales
+     */
+    public Set<String> getLoadedLocales(){
+        return Collections.unmodifiableSet(loadedLocales.keySet());
+    }
+
+    /**
+     * Unloads every locale and loads the locales in use back from the files
+     * @return long Time taken to complete the reloading process
+     */
+    public synchronized long reload(){
+        final long start = System.currentTimeMillis();
+        final Map<UUID, String> assigned = new HashMap<>();
+        playerLocales.forEach((uuid, messages) -> assigned.put(uuid, messages.locale));
+        playerLocales.clear();
+        loadedLocales.clear();
+        defaultMessages = loadLocale(defaultLocale);
+        defaultMessages.users++;
+        assigned.forEach((uuid, locale) -> assign(uuid, resolve(locale)));
+        return System.currentTimeMillis() - start;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event){
+        synchronized (this) {
+            if(!playerLocales.containsKey(event.getPlayer().getUniqueId()))
+                assign(event.getPlayer().getUniqueId(), defaultMessages);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event){
+        synchronized (this) {
+            final LocaleMessages messages = playerLocales.remove(event.getPlayer().getUniqueId());
+            if(messages != null)
+                release(messages);
+        }
+    }
+
+    private String getMessage(LocaleMessages messages, String key){
+        final String message = messages.messages.get(key);
+        if(message == null && messages != defaultMessages)
+            return defaultMessages.messages.get(key);
+        return message;
+    }
+
+    private LocaleMessages getMessages(UUID uuid){
+        final LocaleMessages messages = playerLocales.get(uuid);
+        return messages == null ? defaultMessages : messages;
+    }
+
+    private void assign(UUID uuid, LocaleMessages messages){
+        messages.users++;
+        final LocaleMessages previous = playerLocales.put(uuid, messages);
+        if(previous != null)
+            release(previous);
+    }
+
+    private void release(LocaleMessages messages){
+        if(--messages.users <= 0 && messages != defaultMessages)
+            loadedLocales.remove(messages.locale, messages);
+    }
+
+    /**
+     * Gets the loaded locale, or loads it if its file exists. Falls back to the default locale.
+     */
+    private LocaleMessages resolve(@Nullable String locale){
+        final String name = normalize(locale);
+        if(name == null || name.equals(defaultLocale) || !isValidLocale(name))
+            return defaultMessages;
+        final LocaleMessages loaded = loadedLocales.get(name);
+        if(loaded != null)
+            return loaded;
+        if(!getLocaleFile(name).exists())
+            return defaultMessages;
+        return loadLocale(name);
+    }
+
+    private File getLocaleFile(String locale){
+        return new File(plugin.getDataFolder().getPath() + File.separator + folderName, locale + FILE_EXTENSION);
+    }
+
+    private LocaleMessages loadLocale(String locale){
+        final Yaml yaml = utilityManager.getFileUtils().createYAMLFile(locale, folderName);
+        final Map<String, String> messages = new HashMap<>();
+        final Map<String, List<String>> lists = new HashMap<>();
+        for (String key : yaml.keySet()) {
+            final Object value = yaml.get(key);
+            if(value instanceof String) {
+                final String colorized = utilityManager.getMessageUtils().colorize((String) value);
+                if(colorized != null)
+                    messages.put(stringPool.intern(key), stringPool.intern(colorized));
+            } else if(value instanceof List) {
+                final List<String> messageList = new ArrayList<>();
+                for (Object line : (List<?>) value) {
+                    final String colorized = utilityManager.getMessageUtils().colorize(String.valueOf(line));
+                    messageList.add(colorized == null ? "" : stringPool.intern(colorized));
+                }
+                lists.put(stringPool.intern(key), Collections.unmodifiableList(messageList));
+            }
+        }
+        //Only the colorized copy is kept
+        yaml.getFileData().clear();
+        final LocaleMessages localeMessages = new LocaleMessages(locale, messages, lists);
+        loadedLocales.put(locale, localeMessages);
+        return localeMessages;
+    }
+
+    @Nullable
+    private static String normalize(@Nullable String locale){
+        if(StringUtils.isBlank(locale))
+            return null;
+        return locale.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isValidLocale(@Nullable String locale){
+        return locale != null && LOCALE_PATTERN.matcher(locale).matches();
+    }
+
+    private static final class LocaleMessages {
+        private final String locale;
+        private final Map<String, String> messages;
+        private final Map<String, List<String>> lists;
+        private int users;
+
+        private LocaleMessages(String locale, Map<String, String> messages, Map<String, List<String>> lists) {
+            this.locale = locale;
+            this.messages = messages;
+            this.lists = lists;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package me.alen_alex.proximity;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from a packed chunk key to the players in that chunk.
+ * The keys are kept as primitives, so lookups never box a {@link Long}.
+ */
+final class ChunkBucketMap {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Bucket[] buckets = new Bucket[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    Bucket get(long chunkKey){
+        int slot = slot(chunkKey);
+        Bucket bucket;
+        while ((bucket = buckets[slot]) != null) {
+            if(keys[slot] == chunkKey)
+                return bucket;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    Bucket getOrCreate(long chunkKey){
+        int slot = slot(chunkKey);
+        Bucket bucket;
+        while ((bucket = buckets[slot]) != null) {
+            if(keys[slot] == chunkKey)
+                return bucket;
+            slot = (slot + 1) & mask;
+        }
+        bucket = new Bucket(chunkKey);
+        keys[slot] = chunkKey;
+        buckets[slot] = bucket;
+        if(++size * 2 > buckets.length)
+            resize();
+        return bucket;
+    }
+
+    void remove(long chunkKey){
+        int slot = slot(chunkKey);
+        while (buckets[slot] != null && keys[slot] != chunkKey)
+            slot = (slot + 1) & mask;
+        if(buckets[slot] == null)
+            return;
+        buckets[slot] = null;
+        size--;
+        //Shift back the following entries of the probe sequence so lookups never stop at the freed slot
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if(buckets[next] == null)
+                return;
+            final int home = slot(keys[next]);
+            final boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+            if(movable) {
+                keys[slot] = keys[next];
+                buckets[slot] = buckets[next];
+                buckets[next] = null;
+                slot = next;
+            }
+        }
+    }
+
+    int size(){
+        return size;
+    }
+
+    private void resize(){
+        final long[] oldKeys = keys;
+        final Bucket[] oldBuckets = buckets;
+        keys = new long[oldKeys.length * 2];
+        buckets = new Bucket[oldBuckets.length * 2];
+        mask = buckets.length - 1;
+        for (int i = 0; i < oldBuckets.length; i++) {
+            if(oldBuckets[i] == null)
+                continue;
+            int slot = slot(oldKeys[i]);
+            while (buckets[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            buckets[slot] = oldBuckets[i];
+        }
+    }
+
+    private int slot(long chunkKey){
+        final long hash = chunkKey * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * The players of a single chunk. Removal swaps the last player in, so every player keeps track of its own index
+     */
+    static final class Bucket {
+        private final long chunkKey;
+        private TrackedPlayer[] players = new TrackedPlayer[4];
+        private int size;
+
+        private Bucket(long chunkKey) {
+            this.chunkKey = chunkKey;
+        }
+
+        long getChunkKey() {
+            return chunkKey;
+        }
+
+        int size() {
+            return size;
+        }
+
+        TrackedPlayer get(int index) {
+            return players[index];
+        }
+
+        void add(TrackedPlayer player){
+            if(size == players.length)
+                players = Arrays.copyOf(players, size * 2);
+            player.bucketIndex = size;
+            players[size++] = player;
+        }
+
+        void remove(TrackedPlayer player){
+            final int index = player.bucketIndex;
+            final TrackedPlayer last = players[--size];
+            players[index] = last;
+            last.bucketIndex = index;
+            players[size] = null;
+            player.bucketIndex = -1;
+        }
+    }
+}
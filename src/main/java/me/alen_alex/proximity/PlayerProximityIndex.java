@@ -0,0 +1,244 @@
+package me.alen_alex.proximity;
+
+import me.alen_alex.utils.LocationUtils;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A live index of the online players of every world, bucketed by the chunk they are in.
+ * The buckets are updated on join, quit, move, teleport, respawn and world change, and only when a player crosses a chunk border.
+ * Radius and box queries only visit the buckets of the chunks overlapping the query area and do not allocate.
+ * NOTE: The index is not thread safe and should only be used on the main thread
+ */
+public final class PlayerProximityIndex implements Listener {
+
+    private final JavaPlugin plugin;
+    private final Map<UUID, ChunkBucketMap> worlds;
+    private final Map<UUID, TrackedPlayer> players;
+    //Reused to read the position of the players without creating a location
+    private final Location position;
+
+    public PlayerProximityIndex(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.worlds = new HashMap<>();
+        this.players = new HashMap<>();
+        this.position = new Location(null, 0, 0, 0);
+    }
+
+    /**
+     * Registers the listener and indexes all the online players. This should be called once on enable
+     */
+    public void register(){
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : plugin.getServer().getOnlinePlayers())
+            update(player, player.getLocation());
+    }
+
+    /**
+     * Visit every player within the radius of the given coordinate
+     * @param world the world to search in
+     * @param x the x coordinate of the center
+     * @param y the y coordinate of the center
+     * @param z the z coordinate of the center
+     * @param radius the maximum distance from the center
+     * @param visitor the callback for every player found, returning false stops the query
+     * @return int the number of players visited
+     */
+    public int forEachNearby(@NotNull World world, double x, double y, double z, double radius, @NotNull PlayerVisitor visitor){
+        final ChunkBucketMap buckets = worlds.get(world.getUID());
+        if(buckets == null || buckets.size() == 0)
+            return 0;
+        final double radiusSquared = radius * radius;
+        final int minChunkX = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(x - radius));
+        final int maxChunkX = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(x + radius));
+        final int minChunkZ = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(z - radius));
+        final int maxChunkZ = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(z + radius));
+        int visited = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            final double chunkDistanceX = distanceToRange(x, chunkX << 4);
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                final ChunkBucketMap.Bucket bucket = buckets.get(LocationUtils.toChunkKey(chunkX, chunkZ));
+                if(bucket == null)
+                    continue;
+                //Skip the corner chunks which are entirely out of the circle
+                final double chunkDistanceZ = distanceToRange(z, chunkZ << 4);
+                if(chunkDistanceX * chunkDistanceX + chunkDistanceZ * chunkDistanceZ > radiusSquared)
+                    continue;
+                for (int i = 0; i < bucket.size(); i++) {
+                    final Player player = bucket.get(i).player;
+                    player.getLocation(position);
+                    final double dx = position.getX() - x, dy = position.getY() - y, dz = position.getZ() - z;
+                    if(dx * dx + dy * dy + dz * dz > radiusSquared)
+                        continue;
+                    visited++;
+                    if(!visitor.visit(player))
+                        return visited;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Visit every player within the radius of the given location
+     * Check {@link PlayerProximityIndex#forEachNearby(World, double, double, double, double, PlayerVisitor)}
+     * @param center the center of the search
+     * @param radius the maximum distance from the center
+     * @param visitor the callback for every player found, returning false stops the query
+     * @return int the number of players visited
+     */
+    public int forEachNearby(@NotNull Location center, double radius, @NotNull PlayerVisitor visitor){
+        return forEachNearby(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius, visitor);
+    }
+
+    /**
+     * Visit every player inside the given box (both of the corners are inclusive)
+     * @param world the world to search in
+     * @param visitor the callback for every player found, returning false stops the query
+     * @return int the number of players visited
+     */
+    public int forEachInBox(@NotNull World world, double minX, double minY, double minZ, double maxX, double maxY, double maxZ, @NotNull PlayerVisitor visitor){
+        final ChunkBucketMap buckets = worlds.get(world.getUID());
+        if(buckets == null || buckets.size() == 0)
+            return 0;
+        final int minChunkX = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(minX));
+        final int maxChunkX = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(maxX));
+        final int minChunkZ = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(minZ));
+        final int maxChunkZ = LocationUtils.toChunkCoordinate(LocationUtils.toBlockCoordinate(maxZ));
+        int visited = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                final ChunkBucketMap.Bucket bucket = buckets.get(LocationUtils.toChunkKey(chunkX, chunkZ));
+                if(bucket == null)
+                    continue;
+                for (int i = 0; i < bucket.size(); i++) {
+                    final Player player = bucket.get(i).player;
+                    player.getLocation(position);
+                    if(position.getX() < minX || position.getX() > maxX || position.getY() < minY || position.getY() > maxY || position.getZ() < minZ || position.getZ() > maxZ)
+                        continue;
+                    visited++;
+                    if(!visitor.visit(player))
+                        return visited;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Adds every player within the radius of the given location to the output collection.
+     * The collection can be reused between calls to avoid creating a new one every time
+     * @param center the center of the search
+     * @param radius the maximum distance from the center
+     * @param output the collection to which the players are added
+     * @return int the number of players added
+     */
+    public int collectNearby(@NotNull Location center, double radius, @NotNull Collection<? super Player> output){
+        return forEachNearby(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius, output::add);
+    }
+
+    /**
+     * Checks whether there is at-least one player within the radius of the given location
+     * @param center the center of the search
+     * @param radius the maximum distance from the center
+     * @return boolean whether any player is nearby
+     */
+    public boolean hasNearby(@NotNull Location center, double radius){
+        return forEachNearby(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius, player -> false) > 0;
+    }
+
+    /**
+     * Gets the number of players indexed
+     * @return int the number of players
+     */
+    public int size(){
+        return players.size();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event){
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event){
+        final TrackedPlayer tracked = players.remove(event.getPlayer().getUniqueId());
+        if(tracked != null)
+            detach(tracked);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event){
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event){
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event){
+        update(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event){
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    /**
+     * Moves the player to the bucket of the given location, if the chunk or the world has changed
+     */
+    private void update(Player player, Location location){
+        if(location == null || location.getWorld() == null)
+            return;
+        TrackedPlayer tracked = players.get(player.getUniqueId());
+        if(tracked == null) {
+            tracked = new TrackedPlayer(player);
+            players.put(player.getUniqueId(), tracked);
+        }
+        final long chunkKey = LocationUtils.toChunkKey(LocationUtils.toChunkCoordinate(location.getBlockX()), LocationUtils.toChunkCoordinate(location.getBlockZ()));
+        ChunkBucketMap buckets = tracked.worldBuckets;
+        if(tracked.bucket != null && tracked.bucket.getChunkKey() == chunkKey && buckets == worlds.get(location.getWorld().getUID()))
+            return;
+        detach(tracked);
+        buckets = worlds.computeIfAbsent(location.getWorld().getUID(), uuid -> new ChunkBucketMap());
+        final ChunkBucketMap.Bucket bucket = buckets.getOrCreate(chunkKey);
+        bucket.add(tracked);
+        tracked.worldBuckets = buckets;
+        tracked.bucket = bucket;
+    }
+
+    private void detach(TrackedPlayer tracked){
+        final ChunkBucketMap.Bucket bucket = tracked.bucket;
+        if(bucket == null)
+            return;
+        bucket.remove(tracked);
+        if(bucket.size() == 0)
+            tracked.worldBuckets.remove(bucket.getChunkKey());
+        tracked.bucket = null;
+        tracked.worldBuckets = null;
+    }
+
+    //Distance from a coordinate to the 16 block wide range of a chunk on a single axis
+    private static double distanceToRange(double coordinate, int rangeStart){
+        if(coordinate < rangeStart)
+            return rangeStart - coordinate;
+        if(coordinate > rangeStart + 16)
+            return coordinate - (rangeStart + 16);
+        return 0;
+    }
+}
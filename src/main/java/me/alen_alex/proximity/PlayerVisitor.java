@@ -0,0 +1,19 @@
+package me.alen_alex.proximity;
+
+import org.bukkit.entity.Player;
+
+/**
+ * A callback used to visit the players found by a {@link PlayerProximityIndex} query.
+ */
+@FunctionalInterface
+public interface PlayerVisitor {
+
+    /**
+     * Visit a single player
+     * NOTE: The player should not be teleported from within the visitor
+     * @param player the player found by the query
+     * @return boolean whether the query should continue. Returning false stops the query
+     */
+    boolean visit(Player player);
+
+}
@@ -0,0 +1,18 @@
+package me.alen_alex.proximity;
+
+import org.bukkit.entity.Player;
+
+/**
+ * The position of a player in the {@link PlayerProximityIndex}
+ */
+final class TrackedPlayer {
+
+    final Player player;
+    ChunkBucketMap worldBuckets;
+    ChunkBucketMap.Bucket bucket;
+    int bucketIndex = -1;
+
+    TrackedPlayer(Player player) {
+        this.player = player;
+    }
+}
@@ -0,0 +1,107 @@
+package me.alen_alex.raycast;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockFace;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A mutable result of a block ray trace. A single instance can be reused between traces to avoid
+ * creating a new result every time.
+ */
+public final class BlockRayHit {
+
+    private boolean hit;
+    private int blockX, blockY, blockZ;
+    private int typeId;
+    private BlockFace face;
+    private double distance;
+
+    public BlockRayHit() {
+        reset();
+    }
+
+    /**
+     * Clears the previous result
+     */
+    public void reset(){
+        this.hit = false;
+        this.blockX = 0;
+        this.blockY = 0;
+        this.blockZ = 0;
+        this.typeId = 0;
+        this.face = null;
+        this.distance = 0;
+    }
+
+    /**
+     * Sets the result of a trace. Used by the traversal
+     */
+    public void set(int blockX, int blockY, int blockZ, int typeId, @Nullable BlockFace face, double distance){
+        this.hit = true;
+        this.blockX = blockX;
+        this.blockY = blockY;
+        this.blockZ = blockZ;
+        this.typeId = typeId;
+        this.face = face;
+        this.distance = distance;
+    }
+
+    /**
+     * Whether the trace has hit a block
+     * @return boolean whether a block has been hit
+     */
+    public boolean isHit() {
+        return hit;
+    }
+
+    public int getBlockX() {
+        return blockX;
+    }
+
+    public int getBlockY() {
+        return blockY;
+    }
+
+    public int getBlockZ() {
+        return blockZ;
+    }
+
+    /**
+     * Gets the legacy type id of the block that has been hit
+     * @return int the type id
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Gets the face of the block through which the ray entered.
+     * @return the face, can be null if the ray started inside the block that has been hit
+     */
+    @Nullable
+    public BlockFace getFace() {
+        return face;
+    }
+
+    /**
+     * Gets the distance from the start of the ray to the point it entered the block
+     * @return double the distance
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Creates a location of the block that has been hit
+     * @param world the world the trace was done on
+     * @return the location of the hit block, null if nothing has been hit
+     */
+    @Nullable
+    public Location toLocation(@NotNull World world){
+        if(!hit)
+            return null;
+        return new Location(world, blockX, blockY, blockZ);
+    }
+}
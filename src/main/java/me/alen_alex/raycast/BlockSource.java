@@ -0,0 +1,18 @@
+package me.alen_alex.raycast;
+
+/**
+ * A read only view of block types used by the voxel traversal in {@link me.alen_alex.utils.LocationUtils}.
+ */
+@FunctionalInterface
+public interface BlockSource {
+
+    /**
+     * Gets the legacy type id of the block at the given coordinate
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return int the type id of the block, 0 (air) if the block is not available
+     */
+    int getBlockTypeId(int x, int y, int z);
+
+}
@@ -0,0 +1,89 @@
+package me.alen_alex.raycast;
+
+import me.alen_alex.utils.LocationUtils;
+import org.bukkit.ChunkSnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link BlockSource} backed by {@link ChunkSnapshot}s, which can be safely read off the main thread.
+ * Blocks in chunks which are not captured are treated as air.
+ * NOTE: An instance remembers the last chunk it read from, so a single instance should only be used by one thread at a time
+ */
+public final class SnapshotBlockSource implements BlockSource {
+
+    private static final int WORLD_HEIGHT = 256;
+
+    private final String worldName;
+    private final Map<Long, ChunkSnapshot> snapshots;
+    private long lastChunkKey;
+    private ChunkSnapshot lastSnapshot;
+
+    public SnapshotBlockSource(@NotNull String worldName, @NotNull Collection<ChunkSnapshot> snapshots) {
+        this.worldName = worldName;
+        this.snapshots = new HashMap<>(Math.max(16, snapshots.size() * 2));
+        for (ChunkSnapshot snapshot : snapshots) {
+            this.snapshots.put(LocationUtils.toChunkKey(snapshot.getX(), snapshot.getZ()), snapshot);
+        }
+        this.lastSnapshot = null;
+    }
+
+    /**
+     * Gets the name of the world the snapshots were captured from
+     * @return String name of the world
+     */
+    @NotNull
+    public String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * Gets the captured snapshot of a chunk
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return the snapshot, null if the chunk was not captured
+     */
+    @Nullable
+    public ChunkSnapshot getSnapshot(int chunkX, int chunkZ){
+        final long chunkKey = LocationUtils.toChunkKey(chunkX, chunkZ);
+        if(lastSnapshot != null && lastChunkKey == chunkKey)
+            return lastSnapshot;
+        final ChunkSnapshot snapshot = snapshots.get(chunkKey);
+        if(snapshot != null) {
+            lastChunkKey = chunkKey;
+            lastSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public int getBlockTypeId(int x, int y, int z) {
+        if(y < 0 || y >= WORLD_HEIGHT)
+            return 0;
+        final ChunkSnapshot snapshot = getSnapshot(LocationUtils.toChunkCoordinate(x), LocationUtils.toChunkCoordinate(z));
+        if(snapshot == null)
+            return 0;
+        return snapshot.getBlockTypeId(LocationUtils.toChunkRelative(x), y, LocationUtils.toChunkRelative(z));
+    }
+
+    /**
+     * Gets the legacy data value of the block at the given coordinate
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return int the data of the block, 0 if the block is not available
+     */
+    public int getBlockData(int x, int y, int z) {
+        if(y < 0 || y >= WORLD_HEIGHT)
+            return 0;
+        final ChunkSnapshot snapshot = getSnapshot(LocationUtils.toChunkCoordinate(x), LocationUtils.toChunkCoordinate(z));
+        if(snapshot == null)
+            return 0;
+        return snapshot.getBlockData(LocationUtils.toChunkRelative(x), y, LocationUtils.toChunkRelative(z));
+    }
+
+}
@@ -0,0 +1,95 @@
+package me.alen_alex.region;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base of all the region shapes, holds the world and the bounding box of the shape.
+ * Implementations only need to check the coordinates which are already inside the bounding box.
+ */
+public abstract class AbstractRegion implements Region {
+
+    protected final String worldName;
+    protected final int minX, minY, minZ;
+    protected final int maxX, maxY, maxZ;
+
+    protected AbstractRegion(@NotNull String worldName, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if(StringUtils.isBlank(worldName))
+            throw new IllegalArgumentException("The provided worldName is empty/blank for the region");
+        this.worldName = worldName;
+        this.minX = Math.min(minX, maxX);
+        this.minY = Math.min(minY, maxY);
+        this.minZ = Math.min(minZ, maxZ);
+        this.maxX = Math.max(minX, maxX);
+        this.maxY = Math.max(minY, maxY);
+        this.maxZ = Math.max(minZ, maxZ);
+    }
+
+    @Override
+    @NotNull
+    public String getWorldName() {
+        return worldName;
+    }
+
+    @Override
+    public int getMinX() {
+        return minX;
+    }
+
+    @Override
+    public int getMinY() {
+        return minY;
+    }
+
+    @Override
+    public int getMinZ() {
+        return minZ;
+    }
+
+    @Override
+    public int getMaxX() {
+        return maxX;
+    }
+
+    @Override
+    public int getMaxY() {
+        return maxY;
+    }
+
+    @Override
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    @Override
+    public boolean isInBoundingBox(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    @Override
+    public final boolean contains(int x, int y, int z) {
+        return isInBoundingBox(x, y, z) && containsInBounds(x, y, z);
+    }
+
+    /**
+     * Checks whether a coordinate that is already known to be inside the bounding box is part of the shape
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return boolean whether the coordinate is inside the shape
+     */
+    protected abstract boolean containsInBounds(int x, int y, int z);
+
+    /**
+     * Visit a straight run of blocks along the z axis
+     * @return boolean false if the visitor stopped the iteration
+     */
+    protected static boolean visitRowZ(BlockVisitor visitor, int x, int y, int fromZ, int toZ){
+        for (int z = fromZ; z <= toZ; z++) {
+            if(!visitor.visit(x, y, z))
+                return false;
+        }
+        return true;
+    }
+
+}
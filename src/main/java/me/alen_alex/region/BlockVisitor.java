@@ -0,0 +1,19 @@
+package me.alen_alex.region;
+
+/**
+ * A primitive callback used to visit block coordinates without creating any {@link org.bukkit.Location}
+ * or {@link org.bukkit.block.Block} instance.
+ */
+@FunctionalInterface
+public interface BlockVisitor {
+
+    /**
+     * Visit a single block coordinate
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return boolean whether the iteration should continue. Returning false stops the iteration
+     */
+    boolean visit(int x, int y, int z);
+
+}
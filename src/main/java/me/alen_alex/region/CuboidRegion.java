@@ -0,0 +1,47 @@
+package me.alen_alex.region;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An axis aligned box of blocks. Both of the corners are inclusive.
+ */
+public final class CuboidRegion extends AbstractRegion {
+
+    public CuboidRegion(@NotNull String worldName, int x1, int y1, int z1, int x2, int y2, int z2) {
+        super(worldName, x1, y1, z1, x2, y2, z2);
+    }
+
+    /**
+     * Creates a cuboid between 2 of the corners.
+     * @param cornerA the first corner
+     * @param cornerB the second corner
+     * @throws IllegalArgumentException if the corners are in different worlds
+     */
+    public CuboidRegion(@NotNull Location cornerA, @NotNull Location cornerB) {
+        this(cornerA.getWorld().getName(), cornerA.getBlockX(), cornerA.getBlockY(), cornerA.getBlockZ(), cornerB.getBlockX(), cornerB.getBlockY(), cornerB.getBlockZ());
+        if(!cornerA.getWorld().getName().equals(cornerB.getWorld().getName()))
+            throw new IllegalArgumentException("The provided corners are not in the same world for CuboidRegion");
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        return true;
+    }
+
+    @Override
+    public boolean forEachBlock(@NotNull BlockVisitor visitor) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                if(!visitRowZ(visitor, x, y, minZ, maxZ))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getVolume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+}
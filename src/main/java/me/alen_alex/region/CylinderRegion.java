@@ -0,0 +1,75 @@
+package me.alen_alex.region;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A vertical cylinder of blocks. The circle is checked on the x/z plane around the center block and
+ * spans from minY to maxY (both inclusive)
+ */
+public final class CylinderRegion extends AbstractRegion {
+
+    private final int centerX, centerZ;
+    private final double radius;
+    private final double radiusSquared;
+
+    public CylinderRegion(@NotNull String worldName, int centerX, int centerZ, double radius, int minY, int maxY) {
+        super(worldName, centerX - (int) radius, minY, centerZ - (int) radius, centerX + (int) radius, maxY, centerZ + (int) radius);
+        if(radius < 0)
+            throw new IllegalArgumentException("The provided radius cannot be negative for CylinderRegion");
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+    }
+
+    public CylinderRegion(@NotNull Location center, double radius, int height) {
+        this(center.getWorld().getName(), center.getBlockX(), center.getBlockZ(), radius, center.getBlockY(), center.getBlockY() + height - 1);
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        final long dx = x - centerX, dz = z - centerZ;
+        return dx * dx + dz * dz <= radiusSquared;
+    }
+
+    @Override
+    public boolean forEachBlock(@NotNull BlockVisitor visitor) {
+        for (int x = minX; x <= maxX; x++) {
+            final long dx = x - centerX;
+            final double remaining = radiusSquared - dx * dx;
+            if(remaining < 0)
+                continue;
+            final int halfSpan = (int) Math.sqrt(remaining);
+            for (int y = minY; y <= maxY; y++) {
+                if(!visitRowZ(visitor, x, y, centerZ - halfSpan, centerZ + halfSpan))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getVolume() {
+        long area = 0;
+        for (int x = minX; x <= maxX; x++) {
+            final long dx = x - centerX;
+            final double remaining = radiusSquared - dx * dx;
+            if(remaining >= 0)
+                area += 2L * (int) Math.sqrt(remaining) + 1;
+        }
+        return area * (maxY - minY + 1);
+    }
+
+    public int getCenterX() {
+        return centerX;
+    }
+
+    public int getCenterZ() {
+        return centerZ;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+}
@@ -0,0 +1,222 @@
+package me.alen_alex.region;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A 2D polygon on the x/z plane extruded from minY to maxY (both inclusive).
+ * The points are the blocks at the corners of the polygon. A block is inside when its center lies inside the polygon
+ * (even-odd rule) or an edge of the polygon passes through it, so the corner and edge blocks are always part of the region
+ * the same way as a {@link CuboidRegion} built from the same corners.
+ * The inclusive x spans of each block row are computed once on creation, so {@link PolygonRegion#contains(int, int, int)}
+ * is a binary search over the spans of a single row.
+ */
+public final class PolygonRegion extends AbstractRegion {
+
+    private final int[] pointsX;
+    private final int[] pointsZ;
+    /**
+     * Sorted, non overlapping start/end (inclusive) x pairs of the blocks inside every block row, indexed by z - minZ
+     */
+    private final int[][] rowSpans;
+
+    public PolygonRegion(@NotNull String worldName, @NotNull int[] pointsX, @NotNull int[] pointsZ, int minY, int maxY) {
+        super(worldName, min(pointsX), minY, min(pointsZ), max(pointsX), maxY, max(pointsZ));
+        if(pointsX.length != pointsZ.length)
+            throw new IllegalArgumentException("The provided x and z points are not of the same length for PolygonRegion");
+        if(pointsX.length < 3)
+            throw new IllegalArgumentException("A PolygonRegion requires at-least 3 points");
+        this.pointsX = pointsX.clone();
+        this.pointsZ = pointsZ.clone();
+        this.rowSpans = computeSpans();
+    }
+
+    /**
+     * Creates a polygon from the block x/z of the given points
+     * @param points the corners of the polygon in order. All of them should be in the same world
+     * @param minY the lowest y level (inclusive)
+     * @param maxY the highest y level (inclusive)
+     * @throws IllegalArgumentException if the points are in different worlds or less than 3 points are provided
+     */
+    public PolygonRegion(@NotNull List<Location> points, int minY, int maxY) {
+        this(worldOf(points), xOf(points), zOf(points), minY, maxY);
+    }
+
+    /**
+     * Works in block center space, where a block x/z is the center of the block. The interior spans come from the edge crossings
+     * of the row's center line and every edge adds the blocks it passes through within the row.
+     */
+    private int[][] computeSpans(){
+        final int rows = maxZ - minZ + 1;
+        final int points = pointsX.length;
+        final int[][] spans = new int[rows][];
+        final double[] crossings = new double[points];
+        //Interior spans (at most points / 2) and one span per edge
+        final long[] buffer = new long[points * 2];
+        for (int row = 0; row < rows; row++) {
+            final int lineZ = minZ + row;
+            int crossingCount = 0;
+            int spanCount = 0;
+            for (int i = 0, j = points - 1; i < points; j = i++) {
+                final int xi = pointsX[i], zi = pointsZ[i], xj = pointsX[j], zj = pointsZ[j];
+                if((zi > lineZ) != (zj > lineZ))
+                    crossings[crossingCount++] = xi + (lineZ - zi) * (xj - xi) / (double) (zj - zi);
+
+                //Blocks of the row the edge passes through
+                if(zi == zj) {
+                    if(zi == lineZ)
+                        buffer[spanCount++] = packSpan(Math.min(xi, xj), Math.max(xi, xj));
+                    continue;
+                }
+                final double low = Math.max(Math.min(zi, zj), lineZ - 0.5);
+                final double high = Math.min(Math.max(zi, zj), lineZ + 0.5);
+                //An edge only touching the border of the row is not part of it
+                if(low >= high)
+                    continue;
+                final double lowX = xi + (low - zi) * (xj - xi) / (double) (zj - zi);
+                final double highX = xi + (high - zi) * (xj - xi) / (double) (zj - zi);
+                buffer[spanCount++] = packSpan(firstBlockAfter(Math.min(lowX, highX)), lastBlockBefore(Math.max(lowX, highX)));
+            }
+            Arrays.sort(crossings, 0, crossingCount);
+            for (int i = 0; i + 1 < crossingCount; i += 2) {
+                final int start = (int) Math.ceil(crossings[i]), end = (int) Math.floor(crossings[i + 1]);
+                if(start <= end)
+                    buffer[spanCount++] = packSpan(start, end);
+            }
+            spans[row] = mergeSpans(buffer, spanCount);
+        }
+        return spans;
+    }
+
+    //Sorts the spans by their start and joins the overlapping and touching ones
+    private static int[] mergeSpans(long[] buffer, int count){
+        Arrays.sort(buffer, 0, count);
+        final int[] merged = new int[count * 2];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            final int start = (int) (buffer[i] >> 32), end = (int) buffer[i];
+            if(size > 0 && start <= merged[size - 1] + 1) {
+                merged[size - 1] = Math.max(merged[size - 1], end);
+                continue;
+            }
+            merged[size++] = start;
+            merged[size++] = end;
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    //Sorting the packed value sorts by the start of the span
+    private static long packSpan(int start, int end){
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    //The first block whose area starts after the coordinate, blocks only touching it on their border are excluded
+    private static int firstBlockAfter(double coordinate){
+        return (int) Math.floor(coordinate - 0.5) + 1;
+    }
+
+    //The last block whose area ends after the coordinate, blocks only touching it on their border are excluded
+    private static int lastBlockBefore(double coordinate){
+        return (int) Math.ceil(coordinate + 0.5) - 1;
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        final int[] spans = rowSpans[z - minZ];
+        //Find the last span starting at or before x
+        int low = 0, high = spans.length / 2;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if(spans[mid * 2] <= x)
+                low = mid + 1;
+            else high = mid;
+        }
+        return low > 0 && x <= spans[(low - 1) * 2 + 1];
+    }
+
+    @Override
+    public boolean forEachBlock(@NotNull BlockVisitor visitor) {
+        for (int y = minY; y <= maxY; y++) {
+            for (int row = 0; row < rowSpans.length; row++) {
+                final int[] spans = rowSpans[row];
+                final int z = minZ + row;
+                for (int i = 0; i < spans.length; i += 2) {
+                    for (int x = spans[i]; x <= spans[i + 1]; x++) {
+                        if(!visitor.visit(x, y, z))
+                            return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getVolume() {
+        long area = 0;
+        for (int[] spans : rowSpans) {
+            for (int i = 0; i < spans.length; i += 2) {
+                area += spans[i + 1] - spans[i] + 1;
+            }
+        }
+        return area * (maxY - minY + 1);
+    }
+
+    /**
+     * Gets the number of corners of this polygon
+     * @return int the number of points
+     */
+    public int getPointCount() {
+        return pointsX.length;
+    }
+
+    public int getPointX(int index) {
+        return pointsX[index];
+    }
+
+    public int getPointZ(int index) {
+        return pointsZ[index];
+    }
+
+    private static int min(int[] values){
+        int min = Integer.MAX_VALUE;
+        for (int value : values)
+            min = Math.min(min, value);
+        return min;
+    }
+
+    private static int max(int[] values){
+        int max = Integer.MIN_VALUE;
+        for (int value : values)
+            max = Math.max(max, value);
+        return max;
+    }
+
+    private static String worldOf(List<Location> points){
+        if(points.isEmpty())
+            throw new IllegalArgumentException("A PolygonRegion requires at-least 3 points");
+        final String worldName = points.get(0).getWorld().getName();
+        for (Location point : points) {
+            if(!worldName.equals(point.getWorld().getName()))
+                throw new IllegalArgumentException("The provided points are not in the same world for PolygonRegion");
+        }
+        return worldName;
+    }
+
+    private static int[] xOf(List<Location> points){
+        final int[] values = new int[points.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = points.get(i).getBlockX();
+        return values;
+    }
+
+    private static int[] zOf(List<Location> points){
+        final int[] values = new int[points.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = points.get(i).getBlockZ();
+        return values;
+    }
+}
@@ -0,0 +1,78 @@
+package me.alen_alex.region;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A shape of blocks bound to a world. All the containment checks work on primitive block coordinates,
+ * so they can be safely used on hot paths like {@link org.bukkit.event.player.PlayerMoveEvent}.
+ */
+public interface Region {
+
+    /**
+     * Gets the name of the world this region belongs to
+     * @return String name of the world
+     */
+    @NotNull
+    String getWorldName();
+
+    int getMinX();
+
+    int getMinY();
+
+    int getMinZ();
+
+    int getMaxX();
+
+    int getMaxY();
+
+    int getMaxZ();
+
+    /**
+     * Checks whether the given block coordinate lies inside the bounding box of this region.
+     * This is a cheap check and can be used to cull before calling {@link Region#contains(int, int, int)}
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return boolean whether the coordinate is within the bounding box
+     */
+    default boolean isInBoundingBox(int x, int y, int z){
+        return x >= getMinX() && x <= getMaxX() && y >= getMinY() && y <= getMaxY() && z >= getMinZ() && z <= getMaxZ();
+    }
+
+    /**
+     * Checks whether the given block coordinate lies inside this region.
+     * NOTE: This does not check the world, Use {@link Region#contains(Location)} for that
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return boolean whether the coordinate is inside the region
+     */
+    boolean contains(int x, int y, int z);
+
+    /**
+     * Checks whether the given location is in the same world and lies inside this region
+     * @param location the location which needs to be checked
+     * @return boolean whether the location is inside the region
+     */
+    default boolean contains(@NotNull Location location){
+        return location.getWorld() != null
+                && getWorldName().equals(location.getWorld().getName())
+                && contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Visit every block coordinate contained in this region.
+     * The iteration is done on primitives and will not allocate per block.
+     * @param visitor the callback for each of the contained coordinate
+     * @return boolean true if every block has been visited, false if the visitor stopped the iteration
+     */
+    boolean forEachBlock(@NotNull BlockVisitor visitor);
+
+    /**
+     * Gets the number of blocks contained in this region
+     * @return long the number of blocks
+     */
+    long getVolume();
+
+}
@@ -0,0 +1,345 @@
+package me.alen_alex.region;
+
+import me.alen_alex.raycast.SnapshotBlockSource;
+import me.alen_alex.utils.LocationUtils;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A compact copy of the blocks of a {@link Region}, which can be restored later (For eg: arena resets).
+ * Every distinct type id and data pair is stored once in a palette, and every block of the region's bounding box is stored
+ * as a bit-packed index into that palette, the same way as the chunk section format. Blocks of the bounding box which are not
+ * part of the region use a reserved palette entry and are skipped on restore.
+ * The packed indices can optionally be kept off-heap in a direct buffer.
+ */
+public final class RegionSnapshot {
+
+    private static final int FORMAT_VERSION = 1;
+    //Palette index reserved for the blocks which are not part of the region
+    private static final int SKIP_INDEX = 0;
+    private static final int SKIP_STATE = -1;
+    //Type id (8 bits) and data (4 bits)
+    private static final int STATE_COUNT = 1 << 12;
+
+    private final String worldName;
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final int[] palette;
+    private final int bitsPerEntry;
+    private final int entriesPerLong;
+    private final long entryMask;
+    private final LongBuffer data;
+
+    private RegionSnapshot(String worldName, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] palette, LongBuffer data) {
+        this.worldName = worldName;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.palette = palette;
+        this.bitsPerEntry = bitsFor(palette.length);
+        this.entriesPerLong = 64 / bitsPerEntry;
+        this.entryMask = (1L << bitsPerEntry) - 1;
+        this.data = data;
+    }
+
+    /**
+     * Captures the blocks of the region.
+     * NOTE: This should be called on the main thread and will load the chunks of the region
+     * @param world the world to capture from
+     * @param region the region to be captured
+     * @param offHeap whether the packed blocks should be stored in a direct buffer outside of the heap
+     * @throws IllegalArgumentException if the region is not of the provided world or is too large
+     * @return the captured snapshot
+     */
+    public static RegionSnapshot capture(@NotNull World world, @NotNull Region region, boolean offHeap){
+        return fromSource(captureChunks(world, region), region, offHeap);
+    }
+
+    /**
+     * Captures the blocks of the region. Only the chunk snapshots are taken on the main thread, the blocks are packed on a worker thread.
+     * NOTE: This should be called on the main thread and will load the chunks of the region
+     * @param plugin the plugin which owns the task
+     * @param world the world to capture from
+     * @param region the region to be captured
+     * @param offHeap whether the packed blocks should be stored in a direct buffer outside of the heap
+     * @return {@link CompletableFuture<RegionSnapshot>} completed on the worker thread with the captured snapshot
+     */
+    public static CompletableFuture<RegionSnapshot> captureAsync(@NotNull JavaPlugin plugin, @NotNull World world, @NotNull Region region, boolean offHeap){
+        final CompletableFuture<RegionSnapshot> future = new CompletableFuture<>();
+        final SnapshotBlockSource source = captureChunks(world, region);
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(fromSource(source, region, offHeap));
+            } catch (Exception exception) {
+                future.completeExceptionally(exception);
+            }
+        });
+        return future;
+    }
+
+    private static SnapshotBlockSource captureChunks(World world, Region region){
+        if(!world.getName().equals(region.getWorldName()))
+            throw new IllegalArgumentException("The provided region does not belong to the world "+world.getName());
+        final List<ChunkSnapshot> snapshots = new ArrayList<>();
+        for (int chunkX = LocationUtils.toChunkCoordinate(region.getMinX()); chunkX <= LocationUtils.toChunkCoordinate(region.getMaxX()); chunkX++) {
+            for (int chunkZ = LocationUtils.toChunkCoordinate(region.getMinZ()); chunkZ <= LocationUtils.toChunkCoordinate(region.getMaxZ()); chunkZ++) {
+                snapshots.add(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+            }
+        }
+        return new SnapshotBlockSource(world.getName(), snapshots);
+    }
+
+    private static RegionSnapshot fromSource(SnapshotBlockSource source, Region region, boolean offHeap){
+        final int minX = region.getMinX(), minY = region.getMinY(), minZ = region.getMinZ();
+        final int sizeX = region.getMaxX() - minX + 1, sizeY = region.getMaxY() - minY + 1, sizeZ = region.getMaxZ() - minZ + 1;
+        final long volume = (long) sizeX * sizeY * sizeZ;
+        if(volume > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The provided region is too large to be captured as a RegionSnapshot");
+
+        //First pass, collect the palette. The lookup holds palette index + 1 of every state
+        final int[] lookup = new int[STATE_COUNT];
+        int[] palette = new int[16];
+        palette[SKIP_INDEX] = SKIP_STATE;
+        int paletteSize = 1;
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < sizeZ; z++) {
+                    if(!region.contains(minX + x, minY + y, minZ + z))
+                        continue;
+                    final int state = toState(source.getBlockTypeId(minX + x, minY + y, minZ + z), source.getBlockData(minX + x, minY + y, minZ + z));
+                    if(lookup[state] != 0)
+                        continue;
+                    if(paletteSize == palette.length)
+                        palette = Arrays.copyOf(palette, paletteSize * 2);
+                    palette[paletteSize] = state;
+                    lookup[state] = ++paletteSize;
+                }
+            }
+        }
+        palette = Arrays.copyOf(palette, paletteSize);
+
+        //Second pass, pack the palette indices
+        final int bits = bitsFor(paletteSize);
+        final int entriesPerLong = 64 / bits;
+        final int longCount = (int) ((volume + entriesPerLong - 1) / entriesPerLong);
+        final LongBuffer data = allocate(longCount, offHeap);
+        long word = 0;
+        int wordIndex = 0, entryInWord = 0;
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < sizeZ; z++) {
+                    final int paletteIndex;
+                    if(region.contains(minX + x, minY + y, minZ + z))
+                        paletteIndex = lookup[toState(source.getBlockTypeId(minX + x, minY + y, minZ + z), source.getBlockData(minX + x, minY + y, minZ + z))] - 1;
+                    else paletteIndex = SKIP_INDEX;
+                    word |= (long) paletteIndex << (entryInWord * bits);
+                    if(++entryInWord == entriesPerLong) {
+                        data.put(wordIndex++, word);
+                        word = 0;
+                        entryInWord = 0;
+                    }
+                }
+            }
+        }
+        if(entryInWord != 0)
+            data.put(wordIndex, word);
+        return new RegionSnapshot(region.getWorldName(), minX, minY, minZ, sizeX, sizeY, sizeZ, palette, data);
+    }
+
+    /**
+     * Restores the captured blocks back into the world, spread over multiple ticks.
+     * Every tick blocks are placed until the time budget is used up. Blocks which are already the same are not placed again.
+     * NOTE: This should be called on the main thread
+     * @param plugin the plugin which owns the task
+     * @param maxNanosPerTick the time that can be spent on placing blocks each tick
+     * @return {@link CompletableFuture<Void>} completed on the main thread once every block has been restored
+     */
+    public CompletableFuture<Void> restore(@NotNull JavaPlugin plugin, final long maxNanosPerTick){
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final World world = plugin.getServer().getWorld(worldName);
+        if(world == null) {
+            future.completeExceptionally(new NullPointerException("The world of the snapshot cannot be found on the server. Is the world loaded?"));
+            return future;
+        }
+        final int volume = getVolume();
+        new BukkitRunnable() {
+            private int cursor = 0;
+
+            @Override
+            public void run() {
+                try {
+                    final long start = System.nanoTime();
+                    while (cursor < volume) {
+                        restoreBlock(world, cursor++);
+                        //Checking the clock every block costs more than placing most of them
+                        if((cursor & 31) == 0 && System.nanoTime() - start >= maxNanosPerTick)
+                            return;
+                    }
+                    cancel();
+                    future.complete(null);
+                } catch (Exception exception) {
+                    cancel();
+                    future.completeExceptionally(exception);
+                }
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+        return future;
+    }
+
+    private void restoreBlock(World world, int index){
+        final int paletteIndex = getPaletteIndex(index);
+        if(paletteIndex == SKIP_INDEX)
+            return;
+        final int state = palette[paletteIndex];
+        final int x = minX + index / (sizeY * sizeZ);
+        final int y = minY + (index / sizeZ) % sizeY;
+        final int z = minZ + index % sizeZ;
+        final int typeId = state >>> 4;
+        final byte blockData = (byte) (state & 15);
+        if(world.getBlockTypeIdAt(x, y, z) == typeId) {
+            final Block block = world.getBlockAt(x, y, z);
+            if(block.getData() != blockData)
+                block.setTypeIdAndData(typeId, blockData, false);
+            return;
+        }
+        world.getBlockAt(x, y, z).setTypeIdAndData(typeId, blockData, false);
+    }
+
+    private int getPaletteIndex(int index){
+        final long word = data.get(index / entriesPerLong);
+        return (int) ((word >>> ((index % entriesPerLong) * bitsPerEntry)) & entryMask);
+    }
+
+    /**
+     * Writes the snapshot to the stream. Check {@link RegionSnapshot#readFrom(DataInputStream, boolean)}
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream fails to write
+     */
+    public void writeTo(@NotNull DataOutputStream outputStream) throws IOException {
+        outputStream.writeInt(FORMAT_VERSION);
+        outputStream.writeUTF(worldName);
+        outputStream.writeInt(minX);
+        outputStream.writeInt(minY);
+        outputStream.writeInt(minZ);
+        outputStream.writeInt(sizeX);
+        outputStream.writeInt(sizeY);
+        outputStream.writeInt(sizeZ);
+        outputStream.writeInt(palette.length);
+        for (int state : palette)
+            outputStream.writeInt(state);
+        final int longCount = data.capacity();
+        outputStream.writeInt(longCount);
+        for (int i = 0; i < longCount; i++)
+            outputStream.writeLong(data.get(i));
+    }
+
+    /**
+     * Reads a snapshot written by {@link RegionSnapshot#writeTo(DataOutputStream)}
+     * @param inputStream the stream to read from
+     * @param offHeap whether the packed blocks should be stored in a direct buffer outside of the heap
+     * @throws IOException if the stream fails to read or is not a valid snapshot
+     * @return the snapshot
+     */
+    public static RegionSnapshot readFrom(@NotNull DataInputStream inputStream, boolean offHeap) throws IOException {
+        final int version = inputStream.readInt();
+        if(version != FORMAT_VERSION)
+            throw new IOException("Unsupported RegionSnapshot format version "+version);
+        final String worldName = inputStream.readUTF();
+        final int minX = inputStream.readInt(), minY = inputStream.readInt(), minZ = inputStream.readInt();
+        final int sizeX = inputStream.readInt(), sizeY = inputStream.readInt(), sizeZ = inputStream.readInt();
+        final int paletteSize = inputStream.readInt();
+        if(paletteSize < 1 || paletteSize > STATE_COUNT + 1)
+            throw new IOException("Invalid palette size "+paletteSize+" in RegionSnapshot");
+        final int[] palette = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++)
+            palette[i] = inputStream.readInt();
+        final int longCount = inputStream.readInt();
+        final int entriesPerLong = 64 / bitsFor(paletteSize);
+        if(sizeX <= 0 || sizeY <= 0 || sizeZ <= 0 || longCount != (int) (((long) sizeX * sizeY * sizeZ + entriesPerLong - 1) / entriesPerLong))
+            throw new IOException("Invalid dimensions in RegionSnapshot");
+        final LongBuffer data = allocate(longCount, offHeap);
+        for (int i = 0; i < longCount; i++)
+            data.put(i, inputStream.readLong());
+        return new RegionSnapshot(worldName, minX, minY, minZ, sizeX, sizeY, sizeZ, palette, data);
+    }
+
+    /**
+     * Gets the name of the world the snapshot was captured from
+     * @return String name of the world
+     */
+    @NotNull
+    public String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * Gets the number of blocks of the bounding box that has been captured
+     * @return int the number of blocks
+     */
+    public int getVolume() {
+        return sizeX * sizeY * sizeZ;
+    }
+
+    /**
+     * Gets the number of distinct blocks in the snapshot
+     * @return int the number of palette entries, excluding the entry of the blocks outside the region
+     */
+    public int getPaletteSize() {
+        return palette.length - 1;
+    }
+
+    /**
+     * Gets the number of bits used to store a single block
+     * @return int the bits per block
+     */
+    public int getBitsPerEntry() {
+        return bitsPerEntry;
+    }
+
+    /**
+     * Gets the number of bytes used to store the packed blocks and the palette
+     * @return long the size in bytes
+     */
+    public long getDataSize() {
+        return (long) data.capacity() * Long.BYTES + (long) palette.length * Integer.BYTES;
+    }
+
+    /**
+     * Whether the packed blocks are stored outside of the heap
+     * @return boolean whether the data is off-heap
+     */
+    public boolean isOffHeap() {
+        return data.isDirect();
+    }
+
+    private static LongBuffer allocate(int longCount, boolean offHeap){
+        if(offHeap)
+            return ByteBuffer.allocateDirect(longCount * Long.BYTES).asLongBuffer();
+        return LongBuffer.wrap(new long[longCount]);
+    }
+
+    private static int toState(int typeId, int data){
+        return ((typeId & 0xFF) << 4) | (data & 15);
+    }
+
+    private static int bitsFor(int paletteSize){
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+}
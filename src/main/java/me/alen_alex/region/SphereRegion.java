@@ -0,0 +1,85 @@
+package me.alen_alex.region;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A sphere of blocks around a center block. A block is inside if its distance from the center block is
+ * within the radius, the same way as {@link me.alen_alex.utils.LocationUtils#getBlocksInRadiusCircle(Location, int)}
+ */
+public final class SphereRegion extends AbstractRegion {
+
+    private final int centerX, centerY, centerZ;
+    private final double radius;
+    private final double radiusSquared;
+
+    public SphereRegion(@NotNull String worldName, int centerX, int centerY, int centerZ, double radius) {
+        super(worldName, centerX - (int) radius, centerY - (int) radius, centerZ - (int) radius, centerX + (int) radius, centerY + (int) radius, centerZ + (int) radius);
+        if(radius < 0)
+            throw new IllegalArgumentException("The provided radius cannot be negative for SphereRegion");
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+    }
+
+    public SphereRegion(@NotNull Location center, double radius) {
+        this(center.getWorld().getName(), center.getBlockX(), center.getBlockY(), center.getBlockZ(), radius);
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        final long dx = x - centerX, dy = y - centerY, dz = z - centerZ;
+        return dx * dx + dy * dy + dz * dz <= radiusSquared;
+    }
+
+    @Override
+    public boolean forEachBlock(@NotNull BlockVisitor visitor) {
+        for (int x = minX; x <= maxX; x++) {
+            final long dx = x - centerX;
+            final double remainingX = radiusSquared - dx * dx;
+            for (int y = minY; y <= maxY; y++) {
+                final long dy = y - centerY;
+                final double remaining = remainingX - dy * dy;
+                if(remaining < 0)
+                    continue;
+                final int halfSpan = (int) Math.sqrt(remaining);
+                if(!visitRowZ(visitor, x, y, centerZ - halfSpan, centerZ + halfSpan))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getVolume() {
+        long volume = 0;
+        for (int x = minX; x <= maxX; x++) {
+            final long dx = x - centerX;
+            for (int y = minY; y <= maxY; y++) {
+                final long dy = y - centerY;
+                final double remaining = radiusSquared - dx * dx - dy * dy;
+                if(remaining >= 0)
+                    volume += 2L * (int) Math.sqrt(remaining) + 1;
+            }
+        }
+        return volume;
+    }
+
+    public int getCenterX() {
+        return centerX;
+    }
+
+    public int getCenterY() {
+        return centerY;
+    }
+
+    public int getCenterZ() {
+        return centerZ;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+}
@@ -0,0 +1,99 @@
+package me.alen_alex.safelocation;
+
+import me.alen_alex.utils.LocationUtils;
+import org.bukkit.ChunkSnapshot;
+
+/**
+ * The ground heightmap and the safe columns of a single chunk, computed once from a {@link ChunkSnapshot}
+ * for a given set of {@link SafeLocationRules}.
+ */
+final class ChunkColumnData {
+
+    static final int NO_GROUND = -1;
+    private static final int COLUMNS = 256;
+
+    private final long createdAt;
+    private final short[] groundY = new short[COLUMNS];
+    private final long[] safeColumns = new long[COLUMNS / 64];
+
+    private ChunkColumnData(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Scans every column of the snapshot from the top and records the first ground block with 2 blocks of open space above it
+     */
+    static ChunkColumnData compute(ChunkSnapshot snapshot, SafeLocationRules rules){
+        final ChunkColumnData data = new ChunkColumnData(System.currentTimeMillis());
+        for (int localZ = 0; localZ < 16; localZ++) {
+            for (int localX = 0; localX < 16; localX++) {
+                final int index = index(localX, localZ);
+                int ground = NO_GROUND;
+                int openAbove = 0;
+                for (int y = rules.getMaxY(); y >= rules.getMinY(); y--) {
+                    final int typeId = snapshot.getBlockTypeId(localX, y, localZ);
+                    if(isOpen(typeId, rules)) {
+                        openAbove++;
+                        continue;
+                    }
+                    if(openAbove >= 2) {
+                        ground = y;
+                        break;
+                    }
+                    openAbove = 0;
+                }
+                data.groundY[index] = (short) ground;
+                if(ground != NO_GROUND && !rules.isUnsafe(snapshot.getBlockTypeId(localX, ground, localZ)))
+                    data.safeColumns[index >>> 6] |= 1L << index;
+            }
+        }
+        return data;
+    }
+
+    //Blocks a player can stand inside, like air or tall grass
+    private static boolean isOpen(int typeId, SafeLocationRules rules){
+        return !LocationUtils.isSolid(typeId) && !isLiquid(typeId) && !rules.isUnsafe(typeId);
+    }
+
+    private static boolean isLiquid(int typeId){
+        return typeId >= 8 && typeId <= 11;
+    }
+
+    static int index(int localX, int localZ){
+        return (localZ << 4) | localX;
+    }
+
+    boolean isExpired(long expiryMillis){
+        return System.currentTimeMillis() - createdAt > expiryMillis;
+    }
+
+    boolean isSafe(int index){
+        return (safeColumns[index >>> 6] & (1L << index)) != 0;
+    }
+
+    int getGroundY(int index){
+        return groundY[index];
+    }
+
+    /**
+     * Gets the next safe column, wrapping around the chunk
+     * @param fromIndex the column index to start from (inclusive)
+     * @return int the index of the next safe column, -1 if the chunk has no safe column
+     */
+    int nextSafeColumn(int fromIndex){
+        for (int i = 0; i < COLUMNS; i++) {
+            final int index = (fromIndex + i) & (COLUMNS - 1);
+            final long word = safeColumns[index >>> 6] >>> (index & 63);
+            if(word == 0) {
+                //Skip to the end of the current word
+                i += 63 - (index & 63);
+                continue;
+            }
+            final int skip = Long.numberOfTrailingZeros(word);
+            i += skip;
+            if(i < COLUMNS)
+                return (fromIndex + i) & (COLUMNS - 1);
+        }
+        return -1;
+    }
+}
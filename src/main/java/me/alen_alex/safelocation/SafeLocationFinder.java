@@ -0,0 +1,279 @@
+package me.alen_alex.safelocation;
+
+import me.alen_alex.utils.LocationUtils;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds safe locations (For eg: random teleport, safe spawn) off the main thread.
+ * Candidate columns are sampled on a worker thread from {@link ChunkSnapshot}s. Only capturing the snapshots is done on the main thread.
+ * The heightmap and the safe columns of every scanned chunk are kept in a bounded cache, so repeated searches
+ * around the same area do not need any snapshot at all.
+ */
+public final class SafeLocationFinder {
+
+    private static final int DEFAULT_CACHE_SIZE = 512;
+    private static final long DEFAULT_CACHE_EXPIRY = TimeUnit.MINUTES.toMillis(5);
+    private static final int SAMPLES_PER_ROUND = 8;
+    private static final int MAX_ROUNDS = 6;
+
+    private final JavaPlugin plugin;
+    private final SafeLocationRules rules;
+    private final boolean loadChunks;
+    private final long cacheExpiryMillis;
+    private final Map<ChunkColumnKey, ChunkColumnData> cache;
+
+    public SafeLocationFinder(JavaPlugin plugin) {
+        this(plugin, SafeLocationRules.defaults(), false, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_EXPIRY);
+    }
+
+    /**
+     * @param plugin the plugin which owns the tasks
+     * @param rules the rules defining a safe location
+     * @param loadChunks whether unloaded chunks can be loaded to be sampled. If false, only the loaded chunks will be sampled
+     * @param cacheSize the maximum number of chunks to be cached
+     * @param cacheExpiryMillis how long a cached chunk is trusted before being scanned again
+     */
+    public SafeLocationFinder(JavaPlugin plugin, @NotNull SafeLocationRules rules, boolean loadChunks, final int cacheSize, long cacheExpiryMillis) {
+        if(cacheSize <= 0)
+            throw new IllegalArgumentException("The provided cacheSize should be greater than 0 for SafeLocationFinder");
+        this.plugin = plugin;
+        this.rules = rules;
+        this.loadChunks = loadChunks;
+        this.cacheExpiryMillis = cacheExpiryMillis;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<ChunkColumnKey, ChunkColumnData>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChunkColumnKey, ChunkColumnData> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Gets the rules used by this finder
+     * @return the rules
+     */
+    public SafeLocationRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Search for a safe location at a random column between minRadius and maxRadius around the center.
+     * NOTE: The future is completed on a worker thread, Switch back to the main thread before teleporting
+     * @param world the world to search in
+     * @param centerX the center block x coordinate
+     * @param centerZ the center block z coordinate
+     * @param minRadius the minimum distance from the center
+     * @param maxRadius the maximum distance from the center
+     * @throws IllegalArgumentException if the radius are negative or minRadius is greater than maxRadius
+     * @return {@link CompletableFuture<Location>} completed with a location with the feet on the safe block, or null if none could be found
+     */
+    public CompletableFuture<Location> findSafeLocation(@NotNull World world, int centerX, int centerZ, int minRadius, int maxRadius){
+        if(minRadius < 0 || minRadius > maxRadius)
+            throw new IllegalArgumentException("The provided radius are not valid for SafeLocationFinder#findSafeLocation. minRadius: "+minRadius+" maxRadius: "+maxRadius);
+        final Search search = new Search(world, centerX, centerZ, minRadius, maxRadius);
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> runRound(search));
+        return search.future;
+    }
+
+    /**
+     * Search for a safe location at a random column within the radius around the center location
+     * Check {@link SafeLocationFinder#findSafeLocation(World, int, int, int, int)}
+     * @param center the center of the search
+     * @param radius the maximum distance from the center
+     * @return {@link CompletableFuture<Location>} completed with a safe location, or null if none could be found
+     */
+    public CompletableFuture<Location> findSafeLocation(@NotNull Location center, int radius){
+        return findSafeLocation(center.getWorld(), center.getBlockX(), center.getBlockZ(), 0, radius);
+    }
+
+    /**
+     * Removes a chunk from the cache. Should be called if the blocks of the chunk are known to be changed
+     * @param world the world of the chunk
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     */
+    public void invalidate(@NotNull World world, int chunkX, int chunkZ){
+        cache.remove(new ChunkColumnKey(world.getUID(), LocationUtils.toChunkKey(chunkX, chunkZ)));
+    }
+
+    /**
+     * Clears all the cached chunks
+     */
+    public void clearCache(){
+        cache.clear();
+    }
+
+    /**
+     * Samples a new set of candidates on the worker thread. Snapshots of the chunks missing from the cache are captured
+     * on the main thread before the candidates are checked.
+     */
+    private void runRound(Search search){
+        try {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final Map<Long, ChunkColumnData> columns = new HashMap<>();
+            final Set<Long> missing = new HashSet<>();
+            for (int i = 0; i < SAMPLES_PER_ROUND; i++) {
+                final double angle = random.nextDouble() * Math.PI * 2;
+                final double minSquared = (double) search.minRadius * search.minRadius;
+                final double maxSquared = (double) search.maxRadius * search.maxRadius;
+                //Uniformly distributed over the area of the ring
+                final double distance = Math.sqrt(minSquared + random.nextDouble() * (maxSquared - minSquared));
+                final int x = search.centerX + (int) Math.round(Math.cos(angle) * distance);
+                final int z = search.centerZ + (int) Math.round(Math.sin(angle) * distance);
+                search.candidateX[i] = x;
+                search.candidateZ[i] = z;
+
+                final long chunkKey = LocationUtils.toChunkKey(LocationUtils.toChunkCoordinate(x), LocationUtils.toChunkCoordinate(z));
+                if(columns.containsKey(chunkKey) || missing.contains(chunkKey))
+                    continue;
+                final ChunkColumnKey cacheKey = new ChunkColumnKey(search.worldId, chunkKey);
+                final ChunkColumnData data = cache.get(cacheKey);
+                if(data == null || data.isExpired(cacheExpiryMillis))
+                    missing.add(chunkKey);
+                else columns.put(chunkKey, data);
+            }
+
+            if(missing.isEmpty()) {
+                checkCandidates(search, columns);
+                return;
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                try {
+                    final List<ChunkSnapshot> snapshots = captureSnapshots(search.world, missing);
+                    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                        try {
+                            for (ChunkSnapshot snapshot : snapshots) {
+                                final long chunkKey = LocationUtils.toChunkKey(snapshot.getX(), snapshot.getZ());
+                                final ChunkColumnData data = ChunkColumnData.compute(snapshot, rules);
+                                cache.put(new ChunkColumnKey(search.worldId, chunkKey), data);
+                                columns.put(chunkKey, data);
+                            }
+                            checkCandidates(search, columns);
+                        } catch (Exception exception) {
+                            search.future.completeExceptionally(exception);
+                        }
+                    });
+                } catch (Exception exception) {
+                    search.future.completeExceptionally(exception);
+                }
+            });
+        } catch (Exception exception) {
+            search.future.completeExceptionally(exception);
+        }
+    }
+
+    private List<ChunkSnapshot> captureSnapshots(World world, Set<Long> chunkKeys){
+        final List<ChunkSnapshot> snapshots = new ArrayList<>(chunkKeys.size());
+        for (long chunkKey : chunkKeys) {
+            final int chunkX = LocationUtils.getChunkX(chunkKey), chunkZ = LocationUtils.getChunkZ(chunkKey);
+            if(!loadChunks && !world.isChunkLoaded(chunkX, chunkZ))
+                continue;
+            snapshots.add(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Checks the sampled candidates against the scanned chunks. If the exact candidate column is not safe,
+     * any other safe column of the same chunk within the search ring is used instead.
+     */
+    private void checkCandidates(Search search, Map<Long, ChunkColumnData> columns){
+        if(search.future.isDone())
+            return;
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES_PER_ROUND; i++) {
+            final int x = search.candidateX[i], z = search.candidateZ[i];
+            final ChunkColumnData data = columns.get(LocationUtils.toChunkKey(LocationUtils.toChunkCoordinate(x), LocationUtils.toChunkCoordinate(z)));
+            if(data == null)
+                continue;
+            final int baseX = x & ~15, baseZ = z & ~15;
+            final int candidateIndex = ChunkColumnData.index(LocationUtils.toChunkRelative(x), LocationUtils.toChunkRelative(z));
+            if(data.isSafe(candidateIndex)) {
+                search.future.complete(toLocation(search.world, x, data.getGroundY(candidateIndex), z));
+                return;
+            }
+
+            final int start = random.nextInt(256);
+            int index = data.nextSafeColumn(start);
+            for (int checked = 0; index != -1 && checked < 256; checked++) {
+                final int columnX = baseX + (index & 15), columnZ = baseZ + (index >>> 4);
+                if(search.isInRing(columnX, columnZ)) {
+                    search.future.complete(toLocation(search.world, columnX, data.getGroundY(index), columnZ));
+                    return;
+                }
+                final int next = data.nextSafeColumn((index + 1) & 255);
+                //Wrapped back to the first found column
+                if(next == -1 || ((next - start) & 255) <= ((index - start) & 255))
+                    break;
+                index = next;
+            }
+        }
+
+        if(++search.round >= MAX_ROUNDS)
+            search.future.complete(null);
+        else runRound(search);
+    }
+
+    private static Location toLocation(World world, int x, int groundY, int z){
+        return new Location(world, x + 0.5, groundY + 1, z + 0.5);
+    }
+
+    private static final class Search {
+        private final World world;
+        private final UUID worldId;
+        private final int centerX, centerZ;
+        private final int minRadius, maxRadius;
+        private final int[] candidateX = new int[SAMPLES_PER_ROUND];
+        private final int[] candidateZ = new int[SAMPLES_PER_ROUND];
+        private final CompletableFuture<Location> future = new CompletableFuture<>();
+        private int round;
+
+        private Search(World world, int centerX, int centerZ, int minRadius, int maxRadius) {
+            this.world = world;
+            this.worldId = world.getUID();
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.minRadius = minRadius;
+            this.maxRadius = maxRadius;
+        }
+
+        private boolean isInRing(int x, int z){
+            final long dx = x - centerX, dz = z - centerZ;
+            final long distanceSquared = dx * dx + dz * dz;
+            return distanceSquared >= (long) minRadius * minRadius && distanceSquared <= (long) maxRadius * maxRadius;
+        }
+    }
+
+    private static final class ChunkColumnKey {
+        private final UUID worldId;
+        private final long chunkKey;
+
+        private ChunkColumnKey(UUID worldId, long chunkKey) {
+            this.worldId = worldId;
+            this.chunkKey = chunkKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ChunkColumnKey)) return false;
+            final ChunkColumnKey that = (ChunkColumnKey) o;
+            return chunkKey == that.chunkKey && worldId.equals(that.worldId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * worldId.hashCode() + Long.hashCode(chunkKey);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package me.alen_alex.safelocation;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Defines which columns are considered safe by the {@link SafeLocationFinder}.
+ * A column is safe when it has a ground block within minY and maxY, the ground block is not marked as unsafe
+ * and there are 2 blocks of open space above the ground. Columns without any ground within the limits are treated as void.
+ * Use {@link SafeLocationRules#builder()} to create one, the rules are immutable once built.
+ */
+public final class SafeLocationRules {
+
+    private static final int MAX_BLOCK_ID = 256;
+
+    private final boolean[] unsafeTypes;
+    private final int minY;
+    private final int maxY;
+
+    private SafeLocationRules(boolean[] unsafeTypes, int minY, int maxY) {
+        this.unsafeTypes = unsafeTypes;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Gets the default rules. Lava, water, cactus and fire are unsafe and the ground should be between y 1 and 255
+     * @return the default rules
+     */
+    public static SafeLocationRules defaults(){
+        return builder().build();
+    }
+
+    /**
+     * Creates a builder pre-filled with the default rules
+     * @return a new builder
+     */
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    /**
+     * Checks whether a block type is marked as unsafe
+     * @param typeId the legacy type id of the block
+     * @return boolean whether the block is unsafe
+     */
+    public boolean isUnsafe(int typeId){
+        return typeId >= 0 && typeId < MAX_BLOCK_ID && unsafeTypes[typeId];
+    }
+
+    /**
+     * Gets the lowest y level a ground block can be at. Columns without ground at or above this level are treated as void
+     * @return int the lowest ground level
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Gets the highest y level the search starts from. Can be lowered for worlds with a roof like the nether
+     * @return int the highest level
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public static final class Builder {
+
+        private final boolean[] unsafeTypes = new boolean[MAX_BLOCK_ID];
+        private int minY = 1;
+        private int maxY = MAX_BLOCK_ID - 1;
+
+        private Builder() {
+            addUnsafe(Material.LAVA);
+            addUnsafe(Material.STATIONARY_LAVA);
+            addUnsafe(Material.WATER);
+            addUnsafe(Material.STATIONARY_WATER);
+            addUnsafe(Material.CACTUS);
+            addUnsafe(Material.FIRE);
+        }
+
+        /**
+         * Marks a block as unsafe to stand on or in
+         * @param material the block material
+         * @return the same builder
+         */
+        public Builder addUnsafe(@NotNull Material material){
+            if(material.getId() < MAX_BLOCK_ID)
+                unsafeTypes[material.getId()] = true;
+            return this;
+        }
+
+        /**
+         * Removes a block from being unsafe. For eg: removing water allows locations on top of water
+         * @param material the block material
+         * @return the same builder
+         */
+        public Builder removeUnsafe(@NotNull Material material){
+            if(material.getId() < MAX_BLOCK_ID)
+                unsafeTypes[material.getId()] = false;
+            return this;
+        }
+
+        /**
+         * Sets the lowest y level a ground block can be at
+         * @param minY the lowest ground level
+         * @return the same builder
+         */
+        public Builder setMinY(int minY){
+            this.minY = minY;
+            return this;
+        }
+
+        /**
+         * Sets the highest y level the search starts from
+         * @param maxY the highest level
+         * @return the same builder
+         */
+        public Builder setMaxY(int maxY){
+            this.maxY = maxY;
+            return this;
+        }
+
+        /**
+         * Creates the rules
+         * @throws IllegalArgumentException if the y levels are out of the world height or minY is above maxY
+         * @return the rules
+         */
+        public SafeLocationRules build(){
+            if(minY < 0 || maxY >= MAX_BLOCK_ID || minY > maxY)
+                throw new IllegalArgumentException("The provided y levels are not valid for SafeLocationRules. minY: "+minY+" maxY: "+maxY);
+            return new SafeLocationRules(unsafeTypes.clone(), minY, maxY);
+        }
+    }
+}
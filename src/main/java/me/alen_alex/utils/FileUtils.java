@@ -6,12 +6,14 @@ import de.leonhard.storage.Yaml;
 import de.leonhard.storage.internal.settings.ConfigSettings;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
+import me.alen_alex.region.RegionSnapshot;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
-import java.io.InputStream;
+import java.io.*;
 import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public final class FileUtils{
     private final JavaPlugin plugin;
@@ -154,6 +156,36 @@ public final class FileUtils{
         }
     }
 
+    /**
+     * Writes a {@link RegionSnapshot} compressed to a file under the specified folderName
+     * @param snapshot the snapshot to be saved
+     * @param fileName The name of the file
+     * @param folderName The name of the folder underwhich the file needed to be saved
+     * @throws IOException if the file cannot be written
+     */
+    public void saveRegionSnapshot(@NotNull RegionSnapshot snapshot, @NotNull String fileName, @NotNull String folderName) throws IOException {
+        generateFolder(folderName);
+        File file = new File(plugin.getDataFolder().getPath() + File.separator + folderName, fileName);
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+            snapshot.writeTo(outputStream);
+        }
+    }
+
+    /**
+     * Reads a {@link RegionSnapshot} saved by {@link FileUtils#saveRegionSnapshot(RegionSnapshot, String, String)}
+     * @param fileName The name of the file
+     * @param folderName The name of the folder underwhich the file is saved
+     * @param offHeap whether the packed blocks should be stored in a direct buffer outside of the heap
+     * @throws IOException if the file doesn't exist or cannot be read
+     * @return the loaded snapshot
+     */
+    public RegionSnapshot loadRegionSnapshot(@NotNull String fileName, @NotNull String folderName, boolean offHeap) throws IOException {
+        File file = new File(plugin.getDataFolder().getPath() + File.separator + folderName, fileName);
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            return RegionSnapshot.readFrom(inputStream, offHeap);
+        }
+    }
+
     /**
      * Deletes the file if it exists
      * @param fileName name of the file
@@ -1,7 +1,12 @@
 package me.alen_alex.utils;
 
-import net.minecraft.server.v1_8_R3.StructureBoundingBox;
+import me.alen_alex.raycast.BlockRayHit;
+import me.alen_alex.raycast.BlockSource;
+import me.alen_alex.raycast.SnapshotBlockSource;
+import me.alen_alex.region.BlockVisitor;
+import me.alen_alex.region.Region;
 import org.apache.commons.lang3.StringUtils;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -9,15 +14,32 @@ import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 public final class LocationUtils {
 
     private final JavaPlugin plugin;
     private static final String DELIMITER = "/";
+    private static final int WORLD_HEIGHT = 256;
+    //Tolerance for the rounding error of the distance at which the end of an exclusive ray is reached
+    private static final double RAY_END_EPSILON = 1.0E-9;
+    private static final boolean[] SOLID_TYPES;
+
+    static {
+        int maxId = 0;
+        for (Material material : Material.values())
+            maxId = Math.max(maxId, material.getId());
+        SOLID_TYPES = new boolean[maxId + 1];
+        for (Material material : Material.values()) {
+            if(material.isBlock() && material.isSolid())
+                SOLID_TYPES[material.getId()] = true;
+        }
+    }
 
     public LocationUtils(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -269,8 +291,323 @@ public final class LocationUtils {
         return blocks.iterator();
     }
 
+    /**
+     * Get blocks inside a {@link Region} that satisfies a given condition
+     * @param region the region on which the blocks needs to be collected
+     * @param predicate conditions that needed to be checked
+     * @throws NullPointerException if the world of the region cannot be found on the server
+     * @return {@link Iterator<Block>} gets a block Iterator.
+     */
+    public Iterator<Block> getBlocksInRegion(@NotNull Region region, @NotNull Predicate<Block> predicate){
+        final World world = plugin.getServer().getWorld(region.getWorldName());
+        if(world == null)
+            throw new NullPointerException("The world of the provided region cannot be found on the server. Is the world loaded?");
+        final List<Block> blocks = new ArrayList<>();
+        region.forEachBlock((x, y, z) -> {
+            final Block block = world.getBlockAt(x, y, z);
+            if (predicate.test(block)) {
+                blocks.add(block);
+            }
+            return true;
+        });
+        return blocks.iterator();
+    }
+
+    /**
+     * Get all blocks inside a {@link Region}
+     * @param region the region on which the blocks needs to be collected
+     * @throws NullPointerException if the world of the region cannot be found on the server
+     * @return {@link Iterator<Block>} gets a block Iterator.
+     */
+    public Iterator<Block> getBlocksInRegion(@NotNull Region region){
+        return getBlocksInRegion(region, block -> true);
+    }
+
+    /**
+     * Walk through every block a ray passes through, in order, starting with the block the ray starts in (Amanatides-Woo voxel traversal).
+     * The traversal is done on primitives and will not allocate per block.
+     * NOTE: Blocks above or below the world height are still visited, as long as the ray is moving towards the world.
+     * The end of the ray is inclusive, a block entered at exactly maxDistance is visited
+     * @param startX the x coordinate of the ray start
+     * @param startY the y coordinate of the ray start
+     * @param startZ the z coordinate of the ray start
+     * @param directionX the x component of the direction
+     * @param directionY the y component of the direction
+     * @param directionZ the z component of the direction
+     * @param maxDistance the maximum distance of the ray
+     * @param visitor the callback for each of the block, returning false stops the traversal
+     * @throws IllegalArgumentException if the direction is a zero vector or maxDistance is negative, infinite or NaN
+     * @return boolean true if the traversal completed, false if the visitor stopped it
+     */
+    public boolean traverseBlocks(double startX, double startY, double startZ, double directionX, double directionY, double directionZ, double maxDistance, @NotNull BlockVisitor visitor){
+        return traverse(startX, startY, startZ, directionX, directionY, directionZ, maxDistance, false, visitor, null, null, null);
+    }
+
+    /**
+     * Walk through every block a ray passes through, in order, starting with the block of the start location.
+     * Check {@link LocationUtils#traverseBlocks(double, double, double, double, double, double, double, BlockVisitor)}
+     * @param start the location the ray starts from
+     * @param direction the direction of the ray
+     * @param maxDistance the maximum distance of the ray
+     * @param visitor the callback for each of the block, returning false stops the traversal
+     * @return boolean true if the traversal completed, false if the visitor stopped it
+     */
+    public boolean traverseBlocks(@NotNull Location start, @NotNull Vector direction, double maxDistance, @NotNull BlockVisitor visitor){
+        return traverseBlocks(start.getX(), start.getY(), start.getZ(), direction.getX(), direction.getY(), direction.getZ(), maxDistance, visitor);
+    }
+
+    /**
+     * Trace a ray through the provided {@link BlockSource} and stops at the first block whose type id matches the predicate.
+     * This can be done off the main thread when used with a {@link SnapshotBlockSource}
+     * NOTE: The end of the ray is inclusive, a block entered at exactly maxDistance is also tested
+     * @param source the source of the blocks
+     * @param startX the x coordinate of the ray start
+     * @param startY the y coordinate of the ray start
+     * @param startZ the z coordinate of the ray start
+     * @param directionX the x component of the direction
+     * @param directionY the y component of the direction
+     * @param directionZ the z component of the direction
+     * @param maxDistance the maximum distance of the ray
+     * @param stopPredicate condition on the legacy block type id on which the trace should stop
+     * @param hit the result to be filled, it is reset before tracing
+     * @throws IllegalArgumentException if the direction is a zero vector or maxDistance is negative, infinite or NaN
+     * @return boolean whether a block matched the predicate
+     */
+    public boolean rayTraceBlocks(@NotNull BlockSource source, double startX, double startY, double startZ, double directionX, double directionY, double directionZ, double maxDistance, @NotNull IntPredicate stopPredicate, @NotNull BlockRayHit hit){
+        hit.reset();
+        traverse(startX, startY, startZ, directionX, directionY, directionZ, maxDistance, false, null, source, stopPredicate, hit);
+        return hit.isHit();
+    }
+
+    /**
+     * Gets the first solid block in the direction from the start location.
+     * NOTE: This reads the blocks from the world and should only be used on the main thread. It may load the chunks the ray passes through
+     * @param start the location the ray starts from
+     * @param direction the direction of the ray
+     * @param maxDistance the maximum distance of the ray
+     * @param hit the result to be filled, it is reset before tracing
+     * @return boolean whether a solid block has been hit
+     */
+    public boolean getFirstSolidBlock(@NotNull Location start, @NotNull Vector direction, double maxDistance, @NotNull BlockRayHit hit){
+        return rayTraceBlocks(worldSource(start.getWorld()), start.getX(), start.getY(), start.getZ(), direction.getX(), direction.getY(), direction.getZ(), maxDistance, LocationUtils::isSolid, hit);
+    }
+
+    /**
+     * Gets the first solid block in the direction from the start coordinate using the captured snapshots.
+     * This can be safely used off the main thread.
+     * @param source the captured snapshots, Check {@link LocationUtils#captureSnapshotsAlongRay(Location, Vector, double)}
+     * @param startX the x coordinate of the ray start
+     * @param startY the y coordinate of the ray start
+     * @param startZ the z coordinate of the ray start
+     * @param directionX the x component of the direction
+     * @param directionY the y component of the direction
+     * @param directionZ the z component of the direction
+     * @param maxDistance the maximum distance of the ray
+     * @param hit the result to be filled, it is reset before tracing
+     * @return boolean whether a solid block has been hit
+     */
+    public boolean getFirstSolidBlock(@NotNull SnapshotBlockSource source, double startX, double startY, double startZ, double directionX, double directionY, double directionZ, double maxDistance, @NotNull BlockRayHit hit){
+        return rayTraceBlocks(source, startX, startY, startZ, directionX, directionY, directionZ, maxDistance, LocationUtils::isSolid, hit);
+    }
+
+    /**
+     * Checks whether there is no solid block between the 2 locations.
+     * NOTE: This reads the blocks from the world and should only be used on the main thread
+     * @param from the location to check from, usually the eye location
+     * @param to the location to check to
+     * @throws IllegalArgumentException if the locations are in different worlds
+     * @return boolean whether the line of sight is clear
+     */
+    public boolean hasLineOfSight(@NotNull Location from, @NotNull Location to){
+        if(!from.getWorld().getName().equals(to.getWorld().getName()))
+            throw new IllegalArgumentException("The provided locations are not in the same world for LocationUtils#hasLineOfSight");
+        return hasLineOfSight(worldSource(from.getWorld()), from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ());
+    }
+
+    /**
+     * Checks whether there is no solid block between the 2 coordinates in the provided {@link BlockSource}.
+     * This can be done off the main thread when used with a {@link SnapshotBlockSource}
+     * NOTE: The end is exclusive, a block which is only touched by the target point on its face (For eg: the ground below the feet of a player) does not block the sight
+     * @return boolean whether the line of sight is clear
+     */
+    public boolean hasLineOfSight(@NotNull BlockSource source, double fromX, double fromY, double fromZ, double toX, double toY, double toZ){
+        final double directionX = toX - fromX, directionY = toY - fromY, directionZ = toZ - fromZ;
+        final double distance = Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+        if(distance == 0)
+            return !isSolid(source.getBlockTypeId(toBlockCoordinate(fromX), toBlockCoordinate(fromY), toBlockCoordinate(fromZ)));
+        return traverse(fromX, fromY, fromZ, directionX, directionY, directionZ, distance, true, null, source, LocationUtils::isSolid, null);
+    }
+
+    /**
+     * Capture the snapshots of all the loaded chunks a ray passes through, which can then be used to trace the ray off the main thread.
+     * NOTE: This should be called on the main thread. Chunks which are not loaded will not be loaded, and will be read as air.
+     * @param start the location the ray starts from
+     * @param direction the direction of the ray
+     * @param maxDistance the maximum distance of the ray
+     * @return the captured snapshots
+     */
+    public SnapshotBlockSource captureSnapshotsAlongRay(@NotNull Location start, @NotNull Vector direction, double maxDistance){
+        final World world = start.getWorld();
+        final List<ChunkSnapshot> snapshots = new ArrayList<>();
+        //A ray never goes back to a chunk it has left, so only a change from the last chunk needs to be captured.
+        //Starts as a key which differs from the chunk of the start, so the first chunk is always captured
+        final long[] lastChunkKey = {toChunkKey(toChunkCoordinate(start.getBlockX()), toChunkCoordinate(start.getBlockZ())) ^ 1L};
+        traverseBlocks(start, direction, maxDistance, (x, y, z) -> {
+            final int chunkX = toChunkCoordinate(x), chunkZ = toChunkCoordinate(z);
+            final long chunkKey = toChunkKey(chunkX, chunkZ);
+            if(chunkKey == lastChunkKey[0])
+                return true;
+            lastChunkKey[0] = chunkKey;
+            if(world.isChunkLoaded(chunkX, chunkZ))
+                snapshots.add(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+            return true;
+        });
+        return new SnapshotBlockSource(world.getName(), snapshots);
+    }
+
+    /**
+     * Checks whether a legacy block type id is a solid block
+     * @param typeId the type id of the block
+     * @return boolean whether the block is solid
+     */
+    public static boolean isSolid(int typeId){
+        return typeId >= 0 && typeId < SOLID_TYPES.length && SOLID_TYPES[typeId];
+    }
+
+    private static BlockSource worldSource(final World world){
+        return (x, y, z) -> y < 0 || y >= WORLD_HEIGHT ? 0 : world.getBlockTypeIdAt(x, y, z);
+    }
 
+    /**
+     * The actual voxel traversal. Either visits every block through the visitor, or reads every block from the source and stops
+     * on the first one matching the predicate.
+     * If exclusiveEnd is set, the traversal stops before a block entered at exactly maxDistance, otherwise that block is still visited.
+     * @return boolean true if the traversal completed, false if it was stopped
+     */
+    private static boolean traverse(double startX, double startY, double startZ, double directionX, double directionY, double directionZ, double maxDistance,
+                                    boolean exclusiveEnd, BlockVisitor visitor, BlockSource source, IntPredicate stopPredicate, BlockRayHit hit){
+        final double length = Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+        if(length == 0 || Double.isNaN(length))
+            throw new IllegalArgumentException("The provided direction cannot be a zero vector for the ray trace");
+        if(Double.isNaN(maxDistance) || Double.isInfinite(maxDistance) || maxDistance < 0)
+            throw new IllegalArgumentException("The provided maxDistance should be a finite non-negative value for the ray trace");
+        directionX /= length;
+        directionY /= length;
+        directionZ /= length;
 
+        int x = toBlockCoordinate(startX), y = toBlockCoordinate(startY), z = toBlockCoordinate(startZ);
+        final int stepX = directionX > 0 ? 1 : (directionX < 0 ? -1 : 0);
+        final int stepY = directionY > 0 ? 1 : (directionY < 0 ? -1 : 0);
+        final int stepZ = directionZ > 0 ? 1 : (directionZ < 0 ? -1 : 0);
+        final double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / directionX);
+        final double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / directionY);
+        final double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / directionZ);
+        double maxX = stepX > 0 ? (x + 1 - startX) * deltaX : (stepX < 0 ? (startX - x) * deltaX : Double.POSITIVE_INFINITY);
+        double maxY = stepY > 0 ? (y + 1 - startY) * deltaY : (stepY < 0 ? (startY - y) * deltaY : Double.POSITIVE_INFINITY);
+        double maxZ = stepZ > 0 ? (z + 1 - startZ) * deltaZ : (stepZ < 0 ? (startZ - z) * deltaZ : Double.POSITIVE_INFINITY);
 
+        BlockFace face = null;
+        double distance = 0;
+        while (true) {
+            if(visitor != null && !visitor.visit(x, y, z))
+                return false;
+            if(source != null) {
+                final int typeId = source.getBlockTypeId(x, y, z);
+                if(stopPredicate.test(typeId)) {
+                    if(hit != null)
+                        hit.set(x, y, z, typeId, face, distance);
+                    return false;
+                }
+            }
+
+            if(maxX < maxY) {
+                if(maxX < maxZ) {
+                    distance = maxX;
+                    maxX += deltaX;
+                    x += stepX;
+                    face = stepX > 0 ? BlockFace.WEST : BlockFace.EAST;
+                } else {
+                    distance = maxZ;
+                    maxZ += deltaZ;
+                    z += stepZ;
+                    face = stepZ > 0 ? BlockFace.NORTH : BlockFace.SOUTH;
+                }
+            } else {
+                if(maxY < maxZ) {
+                    distance = maxY;
+                    maxY += deltaY;
+                    y += stepY;
+                    face = stepY > 0 ? BlockFace.DOWN : BlockFace.UP;
+                } else {
+                    distance = maxZ;
+                    maxZ += deltaZ;
+                    z += stepZ;
+                    face = stepZ > 0 ? BlockFace.NORTH : BlockFace.SOUTH;
+                }
+            }
+
+            if(exclusiveEnd ? distance >= maxDistance - RAY_END_EPSILON : distance > maxDistance)
+                return true;
+            //Nothing left to visit once the ray leaves the world vertically
+            if((y < 0 && stepY <= 0) || (y >= WORLD_HEIGHT && stepY >= 0))
+                return true;
+        }
+    }
+
+    /**
+     * Converts an exact coordinate to the coordinate of the block it is in, same as {@link Location#getBlockX()} without a location
+     * @param coordinate the exact x, y or z coordinate
+     * @return int the block coordinate
+     */
+    public static int toBlockCoordinate(double coordinate){
+        final int floor = (int) coordinate;
+        return coordinate < floor ? floor - 1 : floor;
+    }
+
+    /**
+     * Converts a block coordinate to the coordinate of the chunk it belongs to
+     * @param blockCoordinate the x or z block coordinate
+     * @return int the chunk coordinate
+     */
+    public static int toChunkCoordinate(int blockCoordinate){
+        return blockCoordinate >> 4;
+    }
+
+    /**
+     * Converts a block coordinate to its position inside its chunk (0-15)
+     * @param blockCoordinate the x or z block coordinate
+     * @return int the coordinate relative to the chunk
+     */
+    public static int toChunkRelative(int blockCoordinate){
+        return blockCoordinate & 15;
+    }
+
+    /**
+     * Packs the given chunk coordinates into a single long, which can be used as a key without creating an object
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return long the packed key
+     */
+    public static long toChunkKey(int chunkX, int chunkZ){
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the chunk x coordinate from a key packed with {@link LocationUtils#toChunkKey(int, int)}
+     * @param chunkKey the packed key
+     * @return int the chunk x coordinate
+     */
+    public static int getChunkX(long chunkKey){
+        return (int) (chunkKey >> 32);
+    }
+
+    /**
+     * Gets the chunk z coordinate from a key packed with {@link LocationUtils#toChunkKey(int, int)}
+     * @param chunkKey the packed key
+     * @return int the chunk z coordinate
+     */
+    public static int getChunkZ(long chunkKey){
+        return (int) chunkKey;
+    }
 
 }
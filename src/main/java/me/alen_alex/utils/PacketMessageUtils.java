@@ -0,0 +1,272 @@
+package me.alen_alex.utils;
+
+import net.minecraft.server.v1_8_R3.ChatComponentText;
+import net.minecraft.server.v1_8_R3.IChatBaseComponent;
+import net.minecraft.server.v1_8_R3.Packet;
+import net.minecraft.server.v1_8_R3.PacketPlayOutChat;
+import net.minecraft.server.v1_8_R3.PacketPlayOutTitle;
+import net.minecraft.server.v1_8_R3.PlayerConnection;
+import org.apache.commons.lang3.StringUtils;
+import org.bukkit.craftbukkit.v1_8_R3.entity.CraftPlayer;
+import org.bukkit.craftbukkit.v1_8_R3.util.CraftChatMessage;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sends chat, action bar and title messages through cached 1.8 (v1_8_R3) packets.
+ * {@link Player#sendMessage(String)} parses the legacy string into a chat component and creates new packets for every recipient.
+ * Here the packets of a message are built once, kept in a bounded cache and the same packet instance is written to the connection
+ * of every recipient. This is meant for messages which are sent repeatedly, like action bars and titles refreshed every tick.
+ * NOTE: These methods should be called on the main thread
+ */
+public final class PacketMessageUtils {
+
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final byte CHAT_TYPE_SYSTEM = 1;
+    private static final byte CHAT_TYPE_ACTION_BAR = 2;
+
+    private final JavaPlugin plugin;
+    private final MessageUtils messageUtils;
+    private final Map<String, CachedChat> chatCache;
+    private final Map<String, Packet<?>> actionBarCache;
+    private final Map<String, Packet<?>> titleCache;
+    private final Map<String, Packet<?>> subtitleCache;
+    private final Packet<?> emptyTitlePacket;
+    private volatile CachedTimes lastTimes;
+
+    public PacketMessageUtils(JavaPlugin plugin, MessageUtils messageUtils) {
+        this(plugin, messageUtils, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param plugin the plugin
+     * @param messageUtils used to colorize and to format the chat messages with the plugin prefix
+     * @param cacheSize the maximum number of messages to be cached for each of the message type
+     */
+    public PacketMessageUtils(JavaPlugin plugin, MessageUtils messageUtils, int cacheSize) {
+        if(cacheSize <= 0)
+            throw new IllegalArgumentException("The provided cacheSize should be greater than 0 for PacketMessageUtils");
+        this.plugin = plugin;
+        this.messageUtils = messageUtils;
+        this.chatCache = createCache(cacheSize);
+        this.actionBarCache = createCache(cacheSize);
+        this.titleCache = createCache(cacheSize);
+        this.subtitleCache = createCache(cacheSize);
+        this.emptyTitlePacket = new PacketPlayOutTitle(PacketPlayOutTitle.EnumTitleAction.TITLE, new ChatComponentText(""));
+    }
+
+    /**
+     * Send a chat message after colorizing and formatting it with the plugin prefix, same as {@link MessageUtils#sendMessage(Player, String)}
+     * NOTE: If the message is identified as blank message by {@link StringUtils#isBlank(CharSequence)}, it will simply
+     * skip the message from sending
+     * @param player to send the message
+     * @param message what to send as the message
+     */
+    public void sendMessage(@NotNull Player player, String message){
+        if(StringUtils.isBlank(message))
+            return;
+        sendPackets(player, getChatPackets(message));
+    }
+
+    /**
+     * Send the same chat message to all the players. The message is only parsed once.
+     * Check {@link PacketMessageUtils#sendMessage(Player, String)}
+     * @param players to send the message
+     * @param message what to send as the message
+     */
+    public void sendMessage(@NotNull Iterable<? extends Player> players, String message){
+        if(StringUtils.isBlank(message))
+            return;
+        final Packet<?>[] packets = getChatPackets(message);
+        for (Player player : players)
+            sendPackets(player, packets);
+    }
+
+    /**
+     * Send an action bar message after colorizing it. The plugin prefix is not added to action bars
+     * NOTE: If the message is identified as blank message by {@link StringUtils#isBlank(CharSequence)}, it will simply
+     * skip the message from sending
+     * @param player to send the action bar
+     * @param message what to send as the action bar
+     */
+    public void sendActionBar(@NotNull Player player, String message){
+        if(StringUtils.isBlank(message))
+            return;
+        sendPacket(player, getActionBarPacket(message));
+    }
+
+    /**
+     * Send the same action bar message to all the players. Check {@link PacketMessageUtils#sendActionBar(Player, String)}
+     * @param players to send the action bar
+     * @param message what to send as the action bar
+     */
+    public void sendActionBar(@NotNull Iterable<? extends Player> players, String message){
+        if(StringUtils.isBlank(message))
+            return;
+        final Packet<?> packet = getActionBarPacket(message);
+        for (Player player : players)
+            sendPacket(player, packet);
+    }
+
+    /**
+     * Send a title and/or a subtitle after colorizing them.
+     * @param player to send the title
+     * @param title the title, can be null to only show the subtitle (an empty title is sent, as the 1.8 client only shows a subtitle along with a title)
+     * @param subtitle the subtitle, can be null to only send the title
+     * @param fadeIn ticks to fade in
+     * @param stay ticks to stay
+     * @param fadeOut ticks to fade out
+     */
+    public void sendTitle(@NotNull Player player, @Nullable String title, @Nullable String subtitle, int fadeIn, int stay, int fadeOut){
+        final Packet<?> timesPacket = getTimesPacket(fadeIn, stay, fadeOut);
+        final Packet<?> titlePacket = getTitlePacket(title, subtitle);
+        final Packet<?> subtitlePacket = StringUtils.isBlank(subtitle) ? null : getTitlePacket(subtitleCache, PacketPlayOutTitle.EnumTitleAction.SUBTITLE, subtitle);
+        sendTitlePackets(player, timesPacket, titlePacket, subtitlePacket);
+    }
+
+    /**
+     * Send the same title and subtitle to all the players. Check {@link PacketMessageUtils#sendTitle(Player, String, String, int, int, int)}
+     * @param players to send the title
+     * @param title the title, can be null to only show the subtitle (an empty title is sent, as the 1.8 client only shows a subtitle along with a title)
+     * @param subtitle the subtitle, can be null to only send the title
+     * @param fadeIn ticks to fade in
+     * @param stay ticks to stay
+     * @param fadeOut ticks to fade out
+     */
+    public void sendTitle(@NotNull Iterable<? extends Player> players, @Nullable String title, @Nullable String subtitle, int fadeIn, int stay, int fadeOut){
+        final Packet<?> timesPacket = getTimesPacket(fadeIn, stay, fadeOut);
+        final Packet<?> titlePacket = getTitlePacket(title, subtitle);
+        final Packet<?> subtitlePacket = StringUtils.isBlank(subtitle) ? null : getTitlePacket(subtitleCache, PacketPlayOutTitle.EnumTitleAction.SUBTITLE, subtitle);
+        for (Player player : players)
+            sendTitlePackets(player, timesPacket, titlePacket, subtitlePacket);
+    }
+
+    /**
+     * Clears all the cached packets
+     */
+    public void clearCache(){
+        chatCache.clear();
+        actionBarCache.clear();
+        titleCache.clear();
+        subtitleCache.clear();
+        lastTimes = null;
+    }
+
+    private Packet<?>[] getChatPackets(String message){
+        final String prefix = messageUtils.getPluginPrefix();
+        final CachedChat cached = chatCache.get(message);
+        //The prefix is part of the packet, so the cached packets are only valid for the same prefix
+        if(cached != null && Objects.equals(cached.prefix, prefix))
+            return cached.packets;
+        final IChatBaseComponent[] components = CraftChatMessage.fromString(messageUtils.colorize(messageUtils.formatMessage(message)));
+        final Packet<?>[] packets = new Packet<?>[components.length];
+        for (int i = 0; i < components.length; i++)
+            packets[i] = new PacketPlayOutChat(components[i], CHAT_TYPE_SYSTEM);
+        chatCache.put(message, new CachedChat(prefix, packets));
+        return packets;
+    }
+
+    private Packet<?> getActionBarPacket(String message){
+        Packet<?> packet = actionBarCache.get(message);
+        if(packet == null) {
+            //Action bars do not support json components in 1.8, the legacy colored text is sent as is
+            packet = new PacketPlayOutChat(new ChatComponentText(messageUtils.colorize(message)), CHAT_TYPE_ACTION_BAR);
+            actionBarCache.put(message, packet);
+        }
+        return packet;
+    }
+
+    //A subtitle is only displayed by the client once a title packet is received, so an empty title is sent along with it
+    private Packet<?> getTitlePacket(String title, String subtitle){
+        if(!StringUtils.isBlank(title))
+            return getTitlePacket(titleCache, PacketPlayOutTitle.EnumTitleAction.TITLE, title);
+        return StringUtils.isBlank(subtitle) ? null : emptyTitlePacket;
+    }
+
+    private Packet<?> getTitlePacket(Map<String, Packet<?>> cache, PacketPlayOutTitle.EnumTitleAction action, String message){
+        Packet<?> packet = cache.get(message);
+        if(packet == null) {
+            final IChatBaseComponent[] components = CraftChatMessage.fromString(messageUtils.colorize(message));
+            packet = new PacketPlayOutTitle(action, components.length == 0 ? new ChatComponentText("") : components[0]);
+            cache.put(message, packet);
+        }
+        return packet;
+    }
+
+    private Packet<?> getTimesPacket(int fadeIn, int stay, int fadeOut){
+        final CachedTimes times = lastTimes;
+        if(times != null && times.fadeIn == fadeIn && times.stay == stay && times.fadeOut == fadeOut)
+            return times.packet;
+        final CachedTimes created = new CachedTimes(fadeIn, stay, fadeOut, new PacketPlayOutTitle(fadeIn, stay, fadeOut));
+        lastTimes = created;
+        return created.packet;
+    }
+
+    private static void sendTitlePackets(Player player, Packet<?> timesPacket, Packet<?> titlePacket, Packet<?> subtitlePacket){
+        final PlayerConnection connection = getConnection(player);
+        if(connection == null)
+            return;
+        connection.sendPacket(timesPacket);
+        if(subtitlePacket != null)
+            connection.sendPacket(subtitlePacket);
+        if(titlePacket != null)
+            connection.sendPacket(titlePacket);
+    }
+
+    private static void sendPackets(Player player, Packet<?>[] packets){
+        final PlayerConnection connection = getConnection(player);
+        if(connection == null)
+            return;
+        for (Packet<?> packet : packets)
+            connection.sendPacket(packet);
+    }
+
+    private static void sendPacket(Player player, Packet<?> packet){
+        final PlayerConnection connection = getConnection(player);
+        if(connection != null)
+            connection.sendPacket(packet);
+    }
+
+    @Nullable
+    private static PlayerConnection getConnection(Player player){
+        return ((CraftPlayer) player).getHandle().playerConnection;
+    }
+
+    private static <V> Map<String, V> createCache(final int cacheSize){
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(Math.min(cacheSize, 64), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    private static final class CachedChat {
+        private final String prefix;
+        private final Packet<?>[] packets;
+
+        private CachedChat(String prefix, Packet<?>[] packets) {
+            this.prefix = prefix;
+            this.packets = packets;
+        }
+    }
+
+    private static final class CachedTimes {
+        private final int fadeIn, stay, fadeOut;
+        private final Packet<?> packet;
+
+        private CachedTimes(int fadeIn, int stay, int fadeOut, Packet<?> packet) {
+            this.fadeIn = fadeIn;
+            this.stay = stay;
+            this.fadeOut = fadeOut;
+            this.packet = packet;
+        }
+    }
+}